@@ -0,0 +1,265 @@
+package pk.games.tools;
+
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import pk.games.dict.DawgDictionary;
+import pk.games.dict.DictionaryShards;
+
+/**
+ * Offline tool that turns a text word list, one word per line, into the
+ * binary dictionary read by <code>DawgDictionary</code>. Words are
+ * upper-cased, a trie is built and then minimized by merging nodes with
+ * identical suffixes.
+ *
+ * With <code>-shards</code> the output is a resource base name instead, and
+ * one graph is written per initial letter next to the index read by
+ * <code>DictionaryShards</code>; <code>-louds</code> writes the shards as
+ * <code>LoudsDictionary</code> tries instead.
+ *
+ * Usage: <code>DawgBuilder [-shards [-louds]] words.txt ../GameTest/res/words.dawg [encoding]</code>
+ */
+public class DawgBuilder {
+
+	// Trie node used while building, discarded once the graph is written
+	static class Node {
+		Node[] kids;		// Children by letter index
+		boolean word;		// Node ends a word
+		int id;				// Canonical id, assigned by minimize
+
+		Node(int letters) { kids = new Node[letters]; }
+
+		int childCount() {
+			int n = 0;
+			for (int i = 0; i < kids.length; i++)
+				if (kids[i] != null) n++;
+			return n;
+		}
+	}
+
+	private char[] alphabet;	// Sorted letters used by the word list
+	private int[] index;		// Char to letter index, -1 if unused
+	private Node root;
+	private int wordCount;
+
+	public DawgBuilder(SortedSet<String> words) {
+		TreeSet<Character> letters = new TreeSet<Character>();
+		for (String w : words)
+			for (int i = 0; i < w.length(); i++)
+				letters.add(w.charAt(i));
+		if (letters.size() > 256)
+			throw new IllegalArgumentException("Too many letters: " + letters.size());
+
+		alphabet = new char[letters.size()];
+		index = new int[Character.MAX_VALUE + 1];
+		Arrays.fill(index, -1);
+		int i = 0;
+		for (char c : letters) {
+			alphabet[i] = c;
+			index[c] = i++;
+		}
+
+		root = new Node(alphabet.length);
+		for (String w : words)
+			add(w);
+		root = minimize(root, new HashMap<String, Node>());
+	}
+
+	// Read a word list, upper-casing words and dropping blank lines
+	public static SortedSet<String> readWords(String file, String encoding) throws IOException {
+		SortedSet<String> words = new TreeSet<String>();
+		BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(file), encoding));
+		try {
+			String line;
+			while ((line = in.readLine()) != null) {
+				line = line.trim().toUpperCase();
+				if (line.length() > 0)
+					words.add(line);
+			}
+		} finally {
+			in.close();
+		}
+		return words;
+	}
+
+	public char[] getAlphabet() {
+		return alphabet;
+	}
+
+	public int getWordCount() {
+		return wordCount;
+	}
+
+	private void add(String w) {
+		Node n = root;
+		for (int i = 0; i < w.length(); i++) {
+			int l = index[w.charAt(i)];
+			if (n.kids[l] == null)
+				n.kids[l] = new Node(alphabet.length);
+			n = n.kids[l];
+		}
+		n.word = true;
+		wordCount++;
+	}
+
+	// Replace every subtree by the first equal subtree seen, bottom up
+	private Node minimize(Node n, Map<String, Node> seen) {
+		StringBuilder key = new StringBuilder();
+		key.append(n.word ? '1' : '0');
+		for (int i = 0; i < n.kids.length; i++) {
+			if (n.kids[i] == null)
+				continue;
+			n.kids[i] = minimize(n.kids[i], seen);
+			key.append(i).append(':').append(n.kids[i].id).append(',');
+		}
+		String k = key.toString();
+		Node same = seen.get(k);
+		if (same != null)
+			return same;
+		n.id = seen.size();
+		seen.put(k, n);
+		return n;
+	}
+
+	// Lay the graph out as edges, one run of sibling edges per node
+	public int[] toEdges() {
+		Map<Node, Integer> offsets = new IdentityHashMap<Node, Integer>();
+		ArrayList<Node> order = new ArrayList<Node>();
+		int next = 1;	// Edge 0 is the root pseudo-edge
+
+		// Assign each node with children the offset of its edge run
+		order.add(root);
+		offsets.put(root, next);
+		next += root.childCount();
+		for (int q = 0; q < order.size(); q++) {
+			Node n = order.get(q);
+			for (int i = 0; i < n.kids.length; i++) {
+				Node k = n.kids[i];
+				if (k != null && k.childCount() > 0 && !offsets.containsKey(k)) {
+					offsets.put(k, next);
+					next += k.childCount();
+					order.add(k);
+				}
+			}
+		}
+		if (next > DawgDictionary.CHILD_MASK)
+			throw new IllegalStateException("Graph too large: " + next + " edges");
+
+		int[] edges = new int[next];
+		edges[0] = DawgDictionary.LAST_FLAG | offsetOf(root, offsets);
+		for (int q = 0; q < order.size(); q++) {
+			Node n = order.get(q);
+			int e = offsets.get(n);
+			int left = n.childCount();
+			for (int i = 0; i < n.kids.length; i++) {
+				Node k = n.kids[i];
+				if (k == null)
+					continue;
+				int edge = (i << DawgDictionary.LETTER_SHIFT) | offsetOf(k, offsets);
+				if (k.word)
+					edge |= DawgDictionary.WORD_FLAG;
+				if (--left == 0)
+					edge |= DawgDictionary.LAST_FLAG;
+				edges[e++] = edge;
+			}
+		}
+		return edges;
+	}
+
+	private static int offsetOf(Node n, Map<Node, Integer> offsets) {
+		Integer o = offsets.get(n);
+		return o == null ? 0 : o;
+	}
+
+	// Write one graph per initial letter as base_i.dawg, or base_i.louds, and the index as base.idx
+	public static void writeShards(SortedSet<String> words, String base, boolean louds) throws IOException {
+		TreeMap<Character, SortedSet<String>> byInitial = new TreeMap<Character, SortedSet<String>>();
+		for (String w : words) {
+			SortedSet<String> shard = byInitial.get(w.charAt(0));
+			if (shard == null)
+				byInitial.put(w.charAt(0), shard = new TreeSet<String>());
+			shard.add(w);
+		}
+
+		StringBuilder initials = new StringBuilder();
+		int[] wordCounts = new int[byInitial.size()];
+		int[] sizes = new int[byInitial.size()];
+		int s = 0;
+		for (Map.Entry<Character, SortedSet<String>> e : byInitial.entrySet()) {
+			String file = base + "_" + s + (louds ? ".louds" : ".dawg");
+			if (louds)
+				new LoudsBuilder(e.getValue()).write(file);
+			else
+				new DawgBuilder(e.getValue()).write(file);
+			initials.append(e.getKey());
+			wordCounts[s] = e.getValue().size();
+			sizes[s++] = (int)new File(file).length();
+		}
+
+		DataOutputStream out = new DataOutputStream(new FileOutputStream(base + ".idx"));
+		try {
+			out.writeInt(DictionaryShards.MAGIC);
+			out.writeShort(DictionaryShards.VERSION);
+			out.writeByte(louds ? DictionaryShards.FORMAT_LOUDS : DictionaryShards.FORMAT_DAWG);
+			out.writeUTF(initials.toString());
+			for (int i = 0; i < wordCounts.length; i++)
+				out.writeInt(wordCounts[i]);
+			for (int i = 0; i < sizes.length; i++)
+				out.writeInt(sizes[i]);
+		} finally {
+			out.close();
+		}
+		System.out.println(initials.length() + " shards written to " + base);
+	}
+
+	public void write(String file) throws IOException {
+		int[] edges = toEdges();
+		DataOutputStream out = new DataOutputStream(new FileOutputStream(file));
+		try {
+			out.writeInt(DawgDictionary.MAGIC);
+			out.writeShort(DawgDictionary.VERSION);
+			out.writeUTF(new String(alphabet));
+			out.writeInt(edges.length);
+			for (int i = 0; i < edges.length; i++)
+				out.writeInt(edges[i]);
+		} finally {
+			out.close();
+		}
+		System.out.println(wordCount + " words, " + alphabet.length + " letters, "
+				+ edges.length + " edges, " + (edges.length * 4) + " bytes");
+	}
+
+	public static void main(String[] args) throws IOException {
+		boolean shards = false, louds = false;
+		int a = 0;
+		for (; a < args.length && args[a].startsWith("-"); a++) {
+			if (args[a].equals("-shards"))
+				shards = true;
+			else if (args[a].equals("-louds"))
+				louds = true;
+		}
+		if (args.length - a < 2) {
+			System.err.println("Usage: DawgBuilder [-shards [-louds]] <word list> <output> [encoding]");
+			System.exit(1);
+		}
+		String encoding = args.length - a > 2 ? args[a + 2] : "UTF-8";
+		SortedSet<String> words = readWords(args[a], encoding);
+		if (shards)
+			writeShards(words, args[a + 1], louds);
+		else
+			new DawgBuilder(words).write(args[a + 1]);
+	}
+}
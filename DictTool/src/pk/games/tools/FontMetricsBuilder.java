@@ -0,0 +1,126 @@
+package pk.games.tools;
+
+import java.awt.image.BufferedImage;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Offline tool that measures a font strip PNG once and writes the metrics
+ * <code>CustomFont</code> would otherwise work out by scanning the image
+ * at startup. The baseline uses the same heuristic as
+ * <code>CustomFont.calculateBaseline</code>: the row in the bottom half with
+ * the most pixels that differ from the pixel at 0,0.
+ *
+ * Proportional fonts also get an advance per glyph, the glyph's rightmost
+ * inked column plus one column of spacing. Glyphs without ink, such as the
+ * space, keep the cell width.
+ *
+ * Resource layout, all big-endian as written by DataOutputStream:
+ * <pre>
+ * int     MAGIC
+ * short   VERSION
+ * short   glyph count
+ * byte    height
+ * byte    cell width
+ * byte    baseline
+ * boolean proportional, followed by one advance byte per glyph if true
+ * </pre>
+ *
+ * The strip holds the glyphs of chars 0 up to the glyph count, 128 unless
+ * given with -glyphs, e.g. 256 for a strip covering all of Latin-1.
+ *
+ * Usage: <code>FontMetricsBuilder [-proportional] [-glyphs n] ../GameTest/res/mono.png [output]</code>,
+ * the output defaults to the PNG with a .fnt extension.
+ */
+public class FontMetricsBuilder {
+	public static final int MAGIC = 0x464e544d;	// "FNTM", see CustomFont
+	public static final int VERSION = 1;
+	public static final int GLYPHS = 128;		// Chars in a font strip unless told otherwise
+
+	private int glyphs;		// Chars in the strip
+	private int height;
+	private int width;		// Cell width
+	private int baseline;
+	private int[] advances;	// Per glyph, null for a monospaced font
+
+	public FontMetricsBuilder(BufferedImage image, int glyphs, boolean proportional) {
+		if (image.getWidth() % glyphs != 0)
+			throw new IllegalArgumentException("Strip width " + image.getWidth() + " is not a multiple of " + glyphs);
+		this.glyphs = glyphs;
+		height = image.getHeight();
+		width = image.getWidth() / glyphs;
+		int background = image.getRGB(0, 0);
+
+		baseline = height;
+		int max = 0;
+		for (int y = height / 2; y < height; y++) {
+			int total = 0;
+			for (int x = 0; x < image.getWidth(); x++)
+				if (image.getRGB(x, y) != background)
+					total++;
+			if (total > max) {
+				max = total;
+				baseline = y;
+			}
+		}
+
+		if (proportional) {
+			advances = new int[glyphs];
+			for (int g = 0; g < glyphs; g++) {
+				int right = -1;
+				for (int x = 0; x < width; x++)
+					for (int y = 0; y < height; y++)
+						if (image.getRGB(g * width + x, y) != background)
+							right = x;
+				advances[g] = right < 0 ? width : Math.min(width, right + 2);
+			}
+		}
+	}
+
+	public void write(String file) throws IOException {
+		DataOutputStream out = new DataOutputStream(new FileOutputStream(file));
+		try {
+			out.writeInt(MAGIC);
+			out.writeShort(VERSION);
+			out.writeShort(glyphs);
+			out.writeByte(height);
+			out.writeByte(width);
+			out.writeByte(baseline);
+			out.writeBoolean(advances != null);
+			if (advances != null)
+				for (int g = 0; g < glyphs; g++)
+					out.writeByte(advances[g]);
+		} finally {
+			out.close();
+		}
+		System.out.println(glyphs + " glyphs, height " + height + ", cell width " + width + ", baseline " + baseline
+				+ (advances != null ? ", proportional" : ", monospaced"));
+	}
+
+	public static void main(String[] args) throws IOException {
+		boolean proportional = false;
+		int glyphs = GLYPHS;
+		int a = 0;
+		for (; a < args.length && args[a].startsWith("-"); a++) {
+			if (args[a].equals("-proportional"))
+				proportional = true;
+			else if (args[a].equals("-glyphs") && a + 1 < args.length)
+				glyphs = Integer.parseInt(args[++a]);
+		}
+		if (args.length - a < 1) {
+			System.err.println("Usage: FontMetricsBuilder [-proportional] [-glyphs n] <font png> [output]");
+			System.exit(1);
+		}
+		String png = args[a];
+		String output = args.length - a > 1 ? args[a + 1]
+				: (png.endsWith(".png") ? png.substring(0, png.length() - 4) : png) + ".fnt";
+		BufferedImage image = ImageIO.read(new File(png));
+		if (image == null)
+			throw new IOException("Not an image: " + png);
+		new FontMetricsBuilder(image, glyphs, proportional).write(output);
+	}
+}
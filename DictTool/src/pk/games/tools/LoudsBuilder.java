@@ -0,0 +1,124 @@
+package pk.games.tools;
+
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import pk.games.dict.LoudsDictionary;
+
+/**
+ * Offline tool that turns a text word list into the succinct trie read by
+ * <code>LoudsDictionary</code>. The trie is never built as objects: with
+ * the words sorted, a node is the range of words sharing its prefix, and
+ * the ranges are split breadth first.
+ *
+ * Usage: <code>LoudsBuilder words.txt ../GameTest/res/words.louds [encoding]</code>
+ */
+public class LoudsBuilder {
+	private char[] alphabet;	// Sorted letters used by the word list
+	private int[] index;		// Char to letter index, -1 if unused
+	private int nodeCount;
+	private int wordCount;
+	private int[] louds;		// Degree sequence
+	private byte[] labels;		// Letter index into each node but the root
+	private int[] words;		// Word end bits
+
+	public LoudsBuilder(SortedSet<String> list) {
+		TreeSet<Character> letters = new TreeSet<Character>();
+		for (String w : list)
+			for (int i = 0; i < w.length(); i++)
+				letters.add(w.charAt(i));
+		if (letters.size() > 256)
+			throw new IllegalArgumentException("Too many letters: " + letters.size());
+		alphabet = new char[letters.size()];
+		index = new int[Character.MAX_VALUE + 1];
+		Arrays.fill(index, -1);
+		int n = 0;
+		for (char c : letters) {
+			alphabet[n] = c;
+			index[c] = n++;
+		}
+
+		String[] sorted = list.toArray(new String[list.size()]);
+		int capacity = 1;
+		for (String w : sorted)
+			capacity += w.length();
+		louds = new int[(2 * capacity + 31) >>> 5];
+		labels = new byte[capacity];
+		words = new int[(capacity + 31) >>> 5];
+
+		// Each queued node is {first word, end of words, prefix length}
+		ArrayDeque<int[]> queue = new ArrayDeque<int[]>();
+		queue.add(new int[] {0, sorted.length, 0});
+		int pos = 0;
+		while (!queue.isEmpty()) {
+			int[] node = queue.poll();
+			int lo = node[0], hi = node[1], depth = node[2];
+			if (lo < hi && sorted[lo].length() == depth) {
+				words[nodeCount >>> 5] |= 1 << (nodeCount & 31);
+				wordCount++;
+				lo++;
+			}
+			nodeCount++;
+			while (lo < hi) {
+				char c = sorted[lo].charAt(depth);
+				int end = lo;
+				while (end < hi && sorted[end].charAt(depth) == c)
+					end++;
+				labels[nodeCount + queue.size() - 1] = (byte)index[c];
+				queue.add(new int[] {lo, end, depth + 1});
+				louds[pos >>> 5] |= 1 << (pos & 31);
+				pos++;
+				lo = end;
+			}
+			pos++;	// 0 closing the node
+		}
+		louds = Arrays.copyOf(louds, (pos + 31) >>> 5);
+		labels = Arrays.copyOf(labels, nodeCount - 1);
+		words = Arrays.copyOf(words, (nodeCount + 31) >>> 5);
+	}
+
+	public int getWordCount() {
+		return wordCount;
+	}
+
+	public LoudsDictionary toDictionary() {
+		return new LoudsDictionary(alphabet, nodeCount, louds, labels, words);
+	}
+
+	public void write(String file) throws IOException {
+		DataOutputStream out = new DataOutputStream(new FileOutputStream(file));
+		try {
+			out.writeInt(LoudsDictionary.MAGIC);
+			out.writeShort(LoudsDictionary.VERSION);
+			out.writeUTF(new String(alphabet));
+			out.writeInt(nodeCount);
+			writeBits(out, louds);
+			out.write(labels);
+			writeBits(out, words);
+		} finally {
+			out.close();
+		}
+		System.out.println(wordCount + " words, " + alphabet.length + " letters, " + nodeCount + " nodes, "
+				+ ((louds.length + words.length) * 4 + labels.length) + " bytes");
+	}
+
+	private static void writeBits(DataOutputStream out, int[] bits) throws IOException {
+		out.writeInt(bits.length);
+		for (int i = 0; i < bits.length; i++)
+			out.writeInt(bits[i]);
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("Usage: LoudsBuilder <word list> <output> [encoding]");
+			System.exit(1);
+		}
+		String encoding = args.length > 2 ? args[2] : "UTF-8";
+		new LoudsBuilder(DawgBuilder.readWords(args[0], encoding)).write(args[1]);
+	}
+}
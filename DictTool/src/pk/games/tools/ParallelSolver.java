@@ -0,0 +1,205 @@
+package pk.games.tools;
+
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import pk.games.board.Alphabet;
+import pk.games.dict.DawgDictionary;
+import pk.games.dict.IDictionary;
+import pk.games.solver.BoardSolver;
+
+/**
+ * Desktop variant of the board solver for large boards and batches of
+ * boards. The search is split by start tile over a ForkJoinPool; every
+ * task runs the device <code>BoardSolver</code> on its range of start
+ * tiles and returns its words sorted, and results are merged pairwise as
+ * tasks are joined, so no collection is ever shared between threads.
+ *
+ * Usage: <code>ParallelSolver words.dawg [size] [boards]</code> runs a
+ * benchmark against the single-threaded solver and checks that both
+ * return the same words.
+ */
+public class ParallelSolver {
+	private final IDictionary dictionary;	// Read-only, shared by all threads
+	private final ForkJoinPool pool;
+	private final ThreadLocal<BoardSolver> solvers = new ThreadLocal<BoardSolver>() {
+		protected BoardSolver initialValue() { return new BoardSolver(dictionary); }
+	};
+
+	public ParallelSolver(IDictionary dictionary, ForkJoinPool pool) {
+		this.dictionary = dictionary;
+		this.pool = pool;
+	}
+
+	public ParallelSolver(IDictionary dictionary) {
+		this(dictionary, ForkJoinPool.commonPool());
+	}
+
+	// All words on one board, sorted, split across the pool by start tile
+	public String[] solve(int[][] board, Alphabet alphabet) {
+		int tiles = board.length * board.length;
+		int grain = Math.max(1, tiles / (pool.getParallelism() * 4));
+		return pool.invoke(new TileTask(board, alphabet, 0, tiles, grain));
+	}
+
+	// All words on each board of a batch, one task per range of boards
+	public String[][] solveAll(int[][][] boards, Alphabet alphabet) {
+		String[][] result = new String[boards.length][];
+		int grain = Math.max(1, boards.length / (pool.getParallelism() * 8));
+		pool.invoke(new BatchTask(boards, alphabet, result, 0, boards.length, grain));
+		return result;
+	}
+
+	private String[] solveRange(int[][] board, Alphabet alphabet, int from, int to) {
+		BoardSolver solver = solvers.get();
+		solver.solve(board, alphabet, from, to);
+		return solver.getWords();
+	}
+
+	// Searches paths starting in [from, to), halving the range down to grain tiles
+	private class TileTask extends RecursiveTask<String[]> {
+		private final int[][] board;
+		private final Alphabet alphabet;
+		private final int from, to, grain;
+
+		TileTask(int[][] board, Alphabet alphabet, int from, int to, int grain) {
+			this.board = board;
+			this.alphabet = alphabet;
+			this.from = from;
+			this.to = to;
+			this.grain = grain;
+		}
+
+		protected String[] compute() {
+			if (to - from <= grain)
+				return solveRange(board, alphabet, from, to);
+			int mid = (from + to) >>> 1;
+			TileTask left = new TileTask(board, alphabet, from, mid, grain);
+			left.fork();
+			String[] right = new TileTask(board, alphabet, mid, to, grain).compute();
+			return merge(left.join(), right);
+		}
+	}
+
+	// Solves boards [from, to), each board by one thread, into result
+	private class BatchTask extends RecursiveTask<Void> {
+		private final int[][][] boards;
+		private final Alphabet alphabet;
+		private final String[][] result;
+		private final int from, to, grain;
+
+		BatchTask(int[][][] boards, Alphabet alphabet, String[][] result, int from, int to, int grain) {
+			this.boards = boards;
+			this.alphabet = alphabet;
+			this.result = result;
+			this.from = from;
+			this.to = to;
+			this.grain = grain;
+		}
+
+		protected Void compute() {
+			if (to - from <= grain) {
+				for (int i = from; i < to; i++)
+					result[i] = solveRange(boards[i], alphabet, 0, boards[i].length * boards[i].length);
+				return null;
+			}
+			int mid = (from + to) >>> 1;
+			invokeAll(new BatchTask(boards, alphabet, result, from, mid, grain),
+					new BatchTask(boards, alphabet, result, mid, to, grain));
+			return null;
+		}
+	}
+
+	// Union of two sorted word arrays, sorted and without duplicates
+	static String[] merge(String[] a, String[] b) {
+		if (a.length == 0) return b;
+		if (b.length == 0) return a;
+		String[] out = new String[a.length + b.length];
+		int i = 0, j = 0, n = 0;
+		while (i < a.length && j < b.length) {
+			int c = a[i].compareTo(b[j]);
+			if (c < 0) out[n++] = a[i++];
+			else if (c > 0) out[n++] = b[j++];
+			else { out[n++] = a[i++]; j++; }
+		}
+		while (i < a.length) out[n++] = a[i++];
+		while (j < b.length) out[n++] = b[j++];
+		return n == out.length ? out : Arrays.copyOf(out, n);
+	}
+
+	// Boards with letters drawn by rough English frequency
+	static int[][][] randomBoards(char[] alphabet, int size, int count, long seed) {
+		String weighted = "EEEEEEAAAAIIIIOOOOTTTNNNSSSRRRLLLDDHHCCMMUUPPBGFYWKVXZJQ";
+		int[] pick = new int[weighted.length()];
+		int picks = 0;
+		for (int i = 0; i < weighted.length(); i++)
+			for (int l = 0; l < alphabet.length; l++)
+				if (alphabet[l] == weighted.charAt(i))
+					pick[picks++] = l;
+		Random rnd = new Random(seed);
+		int[][][] boards = new int[count][size][size];
+		for (int b = 0; b < count; b++)
+			for (int row = 0; row < size; row++)
+				for (int col = 0; col < size; col++)
+					boards[b][row][col] = pick[rnd.nextInt(picks)];
+		return boards;
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("Usage: ParallelSolver <words.dawg> [size] [boards]");
+			System.exit(1);
+		}
+		DawgDictionary dict;
+		DataInputStream in = new DataInputStream(new FileInputStream(args[0]));
+		try {
+			dict = DawgDictionary.read(in);
+		} finally {
+			in.close();
+		}
+		int size = args.length > 1 ? Integer.parseInt(args[1]) : 15;
+		int count = args.length > 2 ? Integer.parseInt(args[2]) : 2000;
+		Alphabet alphabet = Alphabet.of(dict.getAlphabet());
+		int[][][] boards = randomBoards(dict.getAlphabet(), size, count, 4711);
+
+		ParallelSolver parallel = new ParallelSolver(dict);
+		BoardSolver single = new BoardSolver(dict);
+		System.out.println(parallel.pool.getParallelism() + " threads, " + count + " boards of " + size + "x" + size);
+
+		// Same words from both solvers, and warm-up for the timings below
+		String[][] batch = parallel.solveAll(boards, alphabet);
+		for (int b = 0; b < count; b++) {
+			single.solve(boards[b], alphabet);
+			String[] expected = single.getWords();
+			if (!Arrays.equals(expected, parallel.solve(boards[b], alphabet)) || !Arrays.equals(expected, batch[b]))
+				throw new IllegalStateException("Solvers disagree on board " + b);
+		}
+
+		long t = System.nanoTime();
+		for (int b = 0; b < count; b++)
+			single.solve(boards[b], alphabet);
+		long singleTime = System.nanoTime() - t;
+
+		t = System.nanoTime();
+		for (int b = 0; b < count; b++)
+			parallel.solve(boards[b], alphabet);
+		long splitTime = System.nanoTime() - t;
+
+		t = System.nanoTime();
+		parallel.solveAll(boards, alphabet);
+		long batchTime = System.nanoTime() - t;
+
+		System.out.println("single thread:  " + singleTime / 1000000 + " ms");
+		System.out.println("split by tile:  " + splitTime / 1000000 + " ms, x" + ratio(singleTime, splitTime));
+		System.out.println("split by board: " + batchTime / 1000000 + " ms, x" + ratio(singleTime, batchTime));
+	}
+
+	private static String ratio(long a, long b) {
+		return String.valueOf(Math.round(10.0 * a / Math.max(1, b)) / 10.0);
+	}
+}
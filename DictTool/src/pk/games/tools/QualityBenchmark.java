@@ -0,0 +1,74 @@
+package pk.games.tools;
+
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+import pk.games.board.DiceGenerator;
+import pk.games.board.IBoardGenerator;
+import pk.games.board.QualityGenerator;
+import pk.games.dict.DawgDictionary;
+import pk.games.solver.BoardSolver;
+
+/**
+ * Measures how many boards per second the rejection sampling
+ * <code>QualityGenerator</code> accepts for a given quality band, next to
+ * the raw rate of the dice generator it draws from.
+ *
+ * Usage: <code>QualityBenchmark words.dawg [size] [min words] [min longest] [seconds]</code>
+ */
+public class QualityBenchmark {
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("Usage: QualityBenchmark <words.dawg> [size] [min words] [min longest] [seconds]");
+			System.exit(1);
+		}
+		DawgDictionary dict;
+		DataInputStream in = new DataInputStream(new FileInputStream(args[0]));
+		try {
+			dict = DawgDictionary.read(in);
+		} finally {
+			in.close();
+		}
+		int size = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		int minWords = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+		int minLongest = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+		long millis = (args.length > 4 ? Integer.parseInt(args[4]) : 3) * 1000L;
+
+		int[][] board = new int[size][size];
+		IBoardGenerator dice = DiceGenerator.forSize(size);
+		QualityGenerator quality = new QualityGenerator(dice, new BoardSolver(dict), Integer.MAX_VALUE);
+		quality.setWordRange(minWords, Integer.MAX_VALUE);
+		quality.setLongestRange(minLongest, Integer.MAX_VALUE);
+
+		// Warm up, then time each generator for the same wall clock time
+		run(dice, board, millis / 4);
+		run(quality, board, millis / 4);
+		long raw = run(dice, board, millis);
+
+		long accepted = 0, attempts = 0, words = 0;
+		long end = System.currentTimeMillis() + millis;
+		for (long seed = 0; System.currentTimeMillis() < end; seed++) {
+			quality.generate(board, seed);
+			accepted++;
+			attempts += quality.getAttempts();
+			words += quality.getWordCount();
+		}
+
+		System.out.println(size + "x" + size + ", at least " + minWords + " words and a word of " + minLongest + " letters");
+		System.out.println("dice boards/s:     " + raw * 1000 / millis);
+		System.out.println("accepted boards/s: " + accepted * 1000 / millis);
+		System.out.println("attempts/board:    " + (double)attempts / Math.max(1, accepted));
+		System.out.println("words/board:       " + (double)words / Math.max(1, accepted));
+	}
+
+	// Boards generated in the given time
+	private static long run(IBoardGenerator generator, int[][] board, long millis) {
+		long count = 0;
+		long end = System.currentTimeMillis() + millis;
+		for (long seed = 0; System.currentTimeMillis() < end; seed++, count++)
+			generator.generate(board, seed);
+		return count;
+	}
+}
@@ -0,0 +1,68 @@
+package pk.games.test1;
+
+import javax.microedition.lcdui.Font;
+import javax.microedition.lcdui.Graphics;
+import javax.microedition.lcdui.Image;
+
+// Times CustomFont.drawChars against the way text used to be drawn: for every char the
+// clip is set to the char's cell and the whole font strip is drawn, twice for bold.
+// Text goes to an off-screen image, so it runs headless on the desktop with any lcdui
+// implementation on the classpath, e.g. an emulator's.
+// It lives in bench/, outside the MIDlet's source folder, so it is not built into
+// GameTest.jar. Compile it together with src/ and run it with res/ on the classpath.
+//
+// Usage: FontBenchmark [font png] [rounds]
+public class FontBenchmark {
+	private static final int GLYPHS = 128;	// Chars in the font strip
+	private static final char[] TEXT = "Time left: 0:42 Score: 117 QUESTION".toCharArray();
+
+	public static void main(String[] args) throws Exception {
+		String name = args.length > 0 ? args[0] : "/mono.png";
+		int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+		Image strip = Image.createImage(name);
+		Graphics g = Image.createImage(176, 220).getGraphics();
+
+		run(g, strip, CustomFont.getFont(name, Font.SIZE_SMALL, Font.STYLE_PLAIN), false, rounds, "plain");
+		run(g, strip, CustomFont.getFont(name, Font.SIZE_SMALL, Font.STYLE_BOLD), true, rounds, "bold");
+	}
+
+	// Time both paths, after a round of each to warm up
+	private static void run(Graphics g, Image strip, CustomFont font, boolean bold, int rounds, String label) {
+		long clipped = 0;
+		long batched = 0;
+		for (int pass = 0; pass < 2; pass++) {
+			long start = System.currentTimeMillis();
+			for (int i = 0; i < rounds; i++)
+				drawClipped(g, strip, font.charWidth('a'), bold, TEXT, 5, i & 127);
+			clipped = System.currentTimeMillis() - start;
+
+			start = System.currentTimeMillis();
+			for (int i = 0; i < rounds; i++)
+				font.drawChars(g, TEXT, 0, TEXT.length, 5, i & 127, 0);
+			batched = System.currentTimeMillis() - start;
+		}
+		long chars = (long)rounds * TEXT.length;
+		System.out.println(label + ": clip per char " + (clipped * 1000000 / chars) + " ns/char, glyph regions "
+				+ (batched * 1000000 / chars) + " ns/char");
+	}
+
+	// The old path, clip to each cell and draw the strip shifted so the glyph lands in it
+	private static void drawClipped(Graphics g, Image strip, int width, boolean bold, char[] text, int x, int y) {
+		int clipX = g.getClipX();
+		int clipY = g.getClipY();
+		int clipW = g.getClipWidth();
+		int clipH = g.getClipHeight();
+		int height = strip.getHeight();
+		for (int i = 0; i < text.length; i++) {
+			char c = text[i];
+			if (c < GLYPHS) {
+				g.setClip(x, y, width, height);
+				g.drawImage(strip, x - width*c, y, Graphics.TOP|Graphics.LEFT);
+				if (bold)
+					g.drawImage(strip, x - width*c + 1, y, Graphics.TOP|Graphics.LEFT);
+			}
+			x += width;
+		}
+		g.setClip(clipX, clipY, clipW, clipH);
+	}
+}
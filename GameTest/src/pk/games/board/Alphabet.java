@@ -0,0 +1,106 @@
+package pk.games.board;
+
+/**
+ * The tiles a board can show. Boards store small tile ids; tile i is
+ * labelled <code>getLabel(i)</code> and spells the upper-case chars
+ * <code>getChars(i)</code>, which may be more than one, as the "Qu" tile of
+ * Boggle. The chars of all tiles are also kept back to back in one array
+ * so the hot loops can walk a tile without touching its label.
+ */
+public class Alphabet {
+	// A-Z with Boggle's Qu tile in place of Q
+	public static final Alphabet ENGLISH = new Alphabet(new String[] {
+		"A", "B", "C", "D", "E", "F", "G", "H", "I", "J", "K", "L", "M",
+		"N", "O", "P", "Qu", "R", "S", "T", "U", "V", "W", "X", "Y", "Z"
+	});
+
+	// A-Z plus the Swedish ,  and 
+	public static final Alphabet SWEDISH = new Alphabet(new String[] {
+		"A", "B", "C", "D", "E", "F", "G", "H", "I", "J", "K", "L", "M",
+		"N", "O", "P", "Q", "R", "S", "T", "U", "V", "W", "X", "Y", "Z",
+		"\u00c5", "\u00c4", "\u00d6"
+	});
+
+	private String[] labels;	// Text drawn on each tile
+	private char[] chars;		// Chars of all tiles back to back
+	private int[] offsets;		// Start of each tile's chars, one extra entry at the end
+	private int maxLength;		// Most chars on one tile
+	private String[] spelled;	// Chars of each tile as a string
+
+	public Alphabet(String[] labels) {
+		this.labels = labels;
+		offsets = new int[labels.length + 1];
+		for (int i = 0; i < labels.length; i++) {
+			if (labels[i].length() == 0)
+				throw new IllegalArgumentException("Empty tile " + i);
+			offsets[i + 1] = offsets[i] + labels[i].length();
+			maxLength = Math.max(maxLength, labels[i].length());
+		}
+		chars = new char[offsets[labels.length]];
+		spelled = new String[labels.length];
+		for (int i = 0; i < labels.length; i++) {
+			for (int c = 0; c < labels[i].length(); c++)
+				chars[offsets[i] + c] = Character.toUpperCase(labels[i].charAt(c));
+			spelled[i] = new String(chars, offsets[i], labels[i].length());
+		}
+	}
+
+	// One tile per char
+	public static Alphabet of(char[] letters) {
+		String[] labels = new String[letters.length];
+		for (int i = 0; i < letters.length; i++)
+			labels[i] = String.valueOf(letters[i]);
+		return new Alphabet(labels);
+	}
+
+	// Number of tile ids
+	public int size() {
+		return labels.length;
+	}
+
+	public String getLabel(int tile) {
+		return labels[tile];
+	}
+
+	// Chars of every tile, tile i is chars [getOffsets()[i], getOffsets()[i+1])
+	public char[] getChars() {
+		return chars;
+	}
+
+	public int[] getOffsets() {
+		return offsets;
+	}
+
+	// First char spelled by a tile
+	public char first(int tile) {
+		return chars[offsets[tile]];
+	}
+
+	// Number of chars spelled by a tile
+	public int length(int tile) {
+		return offsets[tile + 1] - offsets[tile];
+	}
+
+	public int getMaxLength() {
+		return maxLength;
+	}
+
+	// Chars of every tile on a board as strings, row by row
+	public String[] spell(int[][] board) {
+		int n = board.length;
+		String[] tiles = new String[n * n];
+		for (int row = 0; row < n; row++)
+			for (int col = 0; col < n; col++)
+				tiles[row * n + col] = spelled[board[row][col]];
+		return tiles;
+	}
+
+	// Tile whose chars start with c, e.g. Qu for 'Q'; -1 if there is none
+	public int indexOf(char c) {
+		c = Character.toUpperCase(c);
+		for (int i = 0; i < labels.length; i++)
+			if (chars[offsets[i]] == c)
+				return i;
+		return -1;
+	}
+}
@@ -0,0 +1,80 @@
+package pk.games.board;
+
+import java.util.Random;
+
+/**
+ * Board generator that shakes a set of letter dice: the dice are shuffled
+ * onto the tiles and each one shows a random face. Boards with more tiles
+ * than dice reuse the set from the start. A face is the first char of its
+ * tile, so the Q faces show Qu with the English alphabet.
+ */
+public class DiceGenerator implements IBoardGenerator {
+
+	// The 16 dice of 4x4 Boggle
+	public static final String[] CLASSIC = {
+		"AAEEGN", "ABBJOO", "ACHOPS", "AFFKPS", "AOOTTW", "CIMOTU", "DEILRX", "DELRVY",
+		"DISTTY", "EEGHNW", "EEINSU", "EHRTVW", "EIOSST", "ELRTTY", "HIMNQU", "HLNNRZ"
+	};
+
+	// The 25 dice of 5x5 Big Boggle
+	public static final String[] BIG = {
+		"AAAFRS", "AAEEEE", "AAFIRS", "ADENNN", "AEEEEM", "AEEGMU", "AEGMNN", "AFIRSY",
+		"BJKQXZ", "CCENST", "CEIILT", "CEILPT", "CEIPST", "DDHNOT", "DHHLOR", "DHLNOR",
+		"DHLNOR", "EIIITT", "EMOTTT", "ENSSSU", "FIPRSY", "GORRVW", "IPRRRY", "NOOTUW",
+		"OOOTTU"
+	};
+
+	private Alphabet alphabet;	// Tiles the faces index into
+	private int[][] faces;		// Tile id of every face of every die
+	private int[] order;		// Die on each tile, reused between boards
+
+	public DiceGenerator(String[] dice, Alphabet alphabet) {
+		this.alphabet = alphabet;
+		faces = new int[dice.length][];
+		for (int d = 0; d < dice.length; d++) {
+			faces[d] = new int[dice[d].length()];
+			for (int f = 0; f < faces[d].length; f++) {
+				faces[d][f] = alphabet.indexOf(dice[d].charAt(f));
+				if (faces[d][f] < 0)
+					throw new IllegalArgumentException("Letter not in alphabet: " + dice[d].charAt(f));
+			}
+		}
+	}
+
+	public DiceGenerator(String[] dice) {
+		this(dice, Alphabet.ENGLISH);
+	}
+
+	// The classic set for boards of up to 4x4, Big Boggle for larger ones
+	public static DiceGenerator forSize(int size) {
+		return new DiceGenerator(size * size <= CLASSIC.length ? CLASSIC : BIG);
+	}
+
+	public Alphabet getAlphabet() {
+		return alphabet;
+	}
+
+	public void generate(int[][] board, long seed) {
+		Random rnd = new Random(seed);
+		int size = board.length;
+		int tiles = size * size;
+		if (order == null || order.length != tiles)
+			order = new int[tiles];
+
+		// Shuffle the dice onto the tiles
+		for (int i = 0; i < tiles; i++)
+			order[i] = i % faces.length;
+		for (int i = tiles - 1; i > 0; i--) {
+			int j = rnd.nextInt(i + 1);
+			int t = order[i];
+			order[i] = order[j];
+			order[j] = t;
+		}
+
+		// Roll them
+		for (int i = 0; i < tiles; i++) {
+			int[] die = faces[order[i]];
+			board[i / size][i % size] = die[rnd.nextInt(die.length)];
+		}
+	}
+}
@@ -0,0 +1,86 @@
+package pk.games.board;
+
+import java.util.Random;
+
+/**
+ * Board generator that draws every tile independently from a weighted
+ * tile table, typically the letter frequencies of a language. The tables
+ * shipped here are keyed by the alphabet they weigh, see
+ * <code>forAlphabet</code>.
+ */
+public class FrequencyGenerator implements IBoardGenerator {
+	// Letter frequencies of English text, per mille
+	private static final int[] ENGLISH = {
+		82, 15, 28, 43, 127, 22, 20, 61, 70, 2, 8, 40, 24,		// A-M
+		67, 75, 19, 1, 60, 63, 91, 28, 10, 24, 2, 20, 1			// N-Z
+	};
+
+	// Letter frequencies of Swedish text, per mille, every letter at least 1
+	private static final int[] SWEDISH = {
+		94, 15, 15, 47, 101, 20, 29, 21, 58, 6, 31, 53, 35,		// A-M
+		85, 45, 18, 1, 84, 66, 77, 19, 24, 1, 2, 7, 1,			// N-Z
+		13, 18, 13												//   
+	};
+
+	// Alphabets with a frequency table, and the table of each
+	private static final Alphabet[] ALPHABETS = { Alphabet.ENGLISH, Alphabet.SWEDISH };
+	private static final int[][] TABLES = { ENGLISH, SWEDISH };
+
+	private Alphabet alphabet;	// Tiles the weights belong to
+	private int[] cumulative;	// Running sum of the weights
+	private int total;			// Sum of all weights
+
+	public FrequencyGenerator(Alphabet alphabet, int[] weights) {
+		if (alphabet.size() != weights.length)
+			throw new IllegalArgumentException("One weight per tile expected");
+		this.alphabet = alphabet;
+		cumulative = new int[weights.length];
+		for (int i = 0; i < weights.length; i++) {
+			total += weights[i];
+			cumulative[i] = total;
+		}
+		if (total <= 0)
+			throw new IllegalArgumentException("No letter has a weight");
+	}
+
+	// Generator with the letter frequencies of the alphabet's language
+	public static FrequencyGenerator forAlphabet(Alphabet alphabet) {
+		for (int i = 0; i < ALPHABETS.length; i++)
+			if (ALPHABETS[i] == alphabet)
+				return new FrequencyGenerator(alphabet, TABLES[i]);
+		throw new IllegalArgumentException("No letter frequencies for the alphabet");
+	}
+
+	public static FrequencyGenerator english() {
+		return forAlphabet(Alphabet.ENGLISH);
+	}
+
+	public static FrequencyGenerator swedish() {
+		return forAlphabet(Alphabet.SWEDISH);
+	}
+
+	public Alphabet getAlphabet() {
+		return alphabet;
+	}
+
+	public void generate(int[][] board, long seed) {
+		Random rnd = new Random(seed);
+		for (int row = 0; row < board.length; row++)
+			for (int col = 0; col < board.length; col++)
+				board[row][col] = pick(rnd.nextInt(total));
+	}
+
+	// Letter whose weight range holds r, binary search on the running sums
+	private int pick(int r) {
+		int lo = 0;
+		int hi = cumulative.length - 1;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (cumulative[mid] > r)
+				hi = mid;
+			else
+				lo = mid + 1;
+		}
+		return lo;
+	}
+}
@@ -0,0 +1,14 @@
+package pk.games.board;
+
+/**
+ * Fills a board with letters. Generators only draw from the
+ * <code>java.util.Random</code> they create from the caller's seed, so two
+ * devices given the same seed produce the same board.
+ */
+public interface IBoardGenerator {
+	// Tiles the generated tile ids refer to
+	public Alphabet getAlphabet();
+
+	// Fill a square board with tile ids, rows first
+	public void generate(int[][] board, long seed);
+}
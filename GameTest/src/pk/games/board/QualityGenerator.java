@@ -0,0 +1,142 @@
+package pk.games.board;
+
+import java.io.IOException;
+import java.util.Random;
+
+import pk.games.dict.DictionaryShards;
+import pk.games.dict.IDictionary;
+import pk.games.solver.BoardSolver;
+import pk.games.solver.Scoring;
+
+/**
+ * Board generator that keeps drawing boards from another generator until
+ * one has a word count, a maximum score and a longest word inside the
+ * configured ranges. Attempt n uses the n:th long of a Random seeded by the
+ * caller's seed, so the accepted board is still a function of the seed.
+ * If no board is accepted within the attempt limit the last one is kept.
+ * With a sharded dictionary each candidate is solved against a view holding
+ * only the shards for its letters. The words of the board kept are
+ * available from <code>getWords</code>, so it need not be solved again.
+ */
+public class QualityGenerator implements IBoardGenerator {
+	private IBoardGenerator source;	// Draws the candidate boards
+	private BoardSolver solver;		// Measures the candidates
+	private DictionaryShards shards;	// Dictionary views for the candidates, null to use the solver's own
+	private Scoring scoring = Scoring.boggle();	// Gives the maximum score
+	private int maxAttempts;		// Give up and keep the last board after this many
+
+	private int minWords = 0, maxWords = Integer.MAX_VALUE;
+	private int minScore = 0, maxScore = Integer.MAX_VALUE;
+	private int minLongest = 0, maxLongest = Integer.MAX_VALUE;
+
+	private int attempts;			// Boards drawn by the last generate
+	private int words;				// Word count of the last board
+	private int score;				// Maximum score of the last board
+	private int longest;			// Longest word on the last board
+	private boolean solved;			// The solver holds the words of the last board
+
+	public QualityGenerator(IBoardGenerator source, BoardSolver solver, int maxAttempts) {
+		this.source = source;
+		this.solver = solver;
+		this.maxAttempts = Math.max(1, maxAttempts);
+	}
+
+	public void setShards(DictionaryShards shards) {
+		this.shards = shards;
+	}
+
+	public void setScoring(Scoring scoring) {
+		this.scoring = scoring;
+	}
+
+	public void setWordRange(int min, int max) {
+		minWords = min;
+		maxWords = max;
+	}
+
+	public void setScoreRange(int min, int max) {
+		minScore = min;
+		maxScore = max;
+	}
+
+	public void setLongestRange(int min, int max) {
+		minLongest = min;
+		maxLongest = max;
+	}
+
+	public Alphabet getAlphabet() {
+		return source.getAlphabet();
+	}
+
+	public void generate(int[][] board, long seed) {
+		Random seeds = new Random(seed);
+		attempts = 0;
+		do {
+			source.generate(board, seeds.nextLong());
+			attempts++;
+			measure(board);
+		} while (!isAccepted() && attempts < maxAttempts);
+	}
+
+	// True if the last board generated falls inside all ranges
+	public boolean isAccepted() {
+		return words >= minWords && words <= maxWords
+			&& score >= minScore && score <= maxScore
+			&& longest >= minLongest && longest <= maxLongest;
+	}
+
+	// Boards drawn by the last generate, including the one kept
+	public int getAttempts() {
+		return attempts;
+	}
+
+	public int getWordCount() {
+		return words;
+	}
+
+	public int getMaxScore() {
+		return score;
+	}
+
+	public int getLongestWord() {
+		return longest;
+	}
+
+	// Words on the last board, sorted alphabetically, null if it could not be solved
+	public String[] getWords() {
+		return solved ? solver.getWords() : null;
+	}
+
+	private void measure(int[][] board) {
+		solved = false;
+		if (shards == null)
+			words = solver.solve(board, source.getAlphabet());
+		else {
+			// A shard that fails to load rejects the candidate, the caller's own load reports it
+			IDictionary view;
+			try {
+				view = shards.acquire(source.getAlphabet().spell(board));
+			} catch (IOException e) {
+				words = score = longest = 0;
+				return;
+			}
+			try {
+				solver.setDictionary(view);
+				words = solver.solve(board, source.getAlphabet());
+			} finally {
+				solver.setDictionary(null);	// Else the solver keeps the released shards reachable
+				shards.release(view);
+			}
+		}
+		solved = true;
+		score = 0;
+		longest = 0;
+		for (int i = 0; i < words; i++) {
+			String word = solver.getWord(i);
+			int length = word.length();
+			score += scoring.score(word);
+			if (length > longest)
+				longest = length;
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package pk.games.dict;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+
+/**
+ * Minimized word graph (DAWG) read from a binary resource produced by
+ * <code>pk.games.tools.DawgBuilder</code>. The graph is kept as one flat
+ * array of edges and walked in place, so no per-node objects are created.
+ *
+ * Resource layout, all big-endian as written by DataOutputStream:
+ * <pre>
+ * int    MAGIC
+ * short  VERSION
+ * UTF    alphabet, letter index i is alphabet.charAt(i)
+ * int    edge count
+ * int[]  edges
+ * </pre>
+ * Each edge packs a letter index, a word flag, a last-sibling flag and
+ * the offset of the first edge leading out of the node it points to
+ * (0 for none). The edges of a node are stored together, sorted by letter.
+ * Edge 0 is a pseudo-edge into the root. A dictionary node is the index
+ * of the edge leading into it.
+ */
+public class DawgDictionary implements IDictionary {
+	public static final int MAGIC = 0x44415747;	// "DAWG"
+	public static final int VERSION = 1;
+
+	public static final int CHILD_MASK = 0x003fffff;	// Offset of first child edge
+	public static final int LAST_FLAG = 0x00400000;		// Last edge of its node
+	public static final int WORD_FLAG = 0x00800000;		// Edge ends a word
+	public static final int LETTER_SHIFT = 24;			// Letter index in the top byte
+
+	private int[] edges;		// The whole graph
+	private char[] alphabet;	// Letter index to char
+	private LetterIndex letters;	// Char to letter index
+
+	public DawgDictionary(char[] alphabet, int[] edges) {
+		this.alphabet = alphabet;
+		this.edges = edges;
+		letters = new LetterIndex(alphabet);
+	}
+
+	// Read a dictionary resource in one sequential pass
+	public static DawgDictionary load(String name) throws IOException {
+		return (DawgDictionary)DictionaryResource.load(name, DictionaryShards.FORMAT_DAWG);
+	}
+
+	public static DawgDictionary read(DataInputStream in) throws IOException {
+		if (in.readInt() != MAGIC)
+			throw new IOException("Not a dictionary");
+		int version = in.readUnsignedShort();
+		if (version != VERSION)
+			throw new IOException("Unsupported dictionary version: " + version);
+		char[] alphabet = in.readUTF().toCharArray();
+		int[] edges = new int[in.readInt()];
+		for (int i = 0; i < edges.length; i++)
+			edges[i] = in.readInt();
+		return new DawgDictionary(alphabet, edges);
+	}
+
+	public int getRoot() {
+		return 0;
+	}
+
+	public int getChild(int node, char c) {
+		int i = edges[node] & CHILD_MASK;
+		if (i == 0)
+			return NONE;
+		int index = letters.indexOf(c);
+		if (index < 0)
+			return NONE;
+		for (;;) {
+			int e = edges[i];
+			int l = e >>> LETTER_SHIFT;
+			if (l == index)
+				return i;
+			if (l > index || (e & LAST_FLAG) != 0)
+				return NONE;
+			i++;
+		}
+	}
+
+	public boolean isWord(int node) {
+		return (edges[node] & WORD_FLAG) != 0;
+	}
+
+	public boolean contains(char[] word, int offset, int length) {
+		int node = 0;
+		for (int i = offset; i < offset + length && node != NONE; i++)
+			node = getChild(node, word[i]);
+		return node != NONE && (edges[node] & WORD_FLAG) != 0;
+	}
+
+	// Letters the dictionary is built over, in letter index order
+	public char[] getAlphabet() {
+		return alphabet;
+	}
+
+	// Number of edges in the graph, including the root pseudo-edge
+	public int getEdgeCount() {
+		return edges.length;
+	}
+}
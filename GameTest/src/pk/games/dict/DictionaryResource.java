@@ -0,0 +1,31 @@
+package pk.games.dict;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+// Opens the binary resources the dictionaries are read from, all of them read in one
+// sequential pass through a DataInputStream.
+final class DictionaryResource {
+	private DictionaryResource() { }
+
+	// The caller closes the stream
+	static DataInputStream open(String name) throws IOException {
+		InputStream in = DictionaryResource.class.getResourceAsStream(name);
+		if (in == null)
+			throw new IOException("Could not locate dictionary resource: " + name);
+		return new DataInputStream(in);
+	}
+
+	// Read a dictionary in one of the DictionaryShards formats
+	static IDictionary load(String name, int format) throws IOException {
+		DataInputStream in = open(name);
+		try {
+			if (format == DictionaryShards.FORMAT_LOUDS)
+				return LoudsDictionary.read(in);
+			return DawgDictionary.read(in);
+		} finally {
+			in.close();
+		}
+	}
+}
@@ -0,0 +1,147 @@
+package pk.games.dict;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+
+/**
+ * A dictionary split into one resource per initial letter, written by
+ * <code>DawgBuilder</code> next to a small index. A game acquires a view
+ * holding just the shards for the letters on its board, since no word can
+ * start with any other letter, and releases it when the round is over.
+ * Shards are shared between views and dropped once no view holds them.
+ *
+ * Index resource <code>base + ".idx"</code>:
+ * <pre>
+ * int    MAGIC
+ * short  VERSION
+ * byte   FORMAT_DAWG or FORMAT_LOUDS, from version 2
+ * UTF    initials, shard i holds the words starting with initials.charAt(i)
+ * int[]  word count of each shard
+ * int[]  resource size of each shard
+ * </pre>
+ * Shard i is the resource <code>base + "_" + i</code> followed by ".dawg" for
+ * a DawgDictionary or ".louds" for a LoudsDictionary.
+ */
+public class DictionaryShards {
+	public static final int MAGIC = 0x44494458;	// "DIDX"
+	public static final int VERSION = 2;
+	public static final int FORMAT_DAWG = 0;	// Shards are DawgDictionary resources
+	public static final int FORMAT_LOUDS = 1;	// Shards are LoudsDictionary resources
+
+	private String base;			// Resource name without suffix
+	private int format;				// FORMAT_DAWG or FORMAT_LOUDS
+	private char[] initials;		// First letter of the words in each shard
+	private int[] wordCounts;		// Words in each shard
+	private int[] sizes;			// Resource size of each shard
+	private LetterIndex shardIndex;	// Initial to shard
+	private IDictionary[] loaded;	// Loaded shards, null if not loaded
+	private int[] users;			// Number of views holding each shard
+
+	private DictionaryShards(String base, int format, char[] initials, int[] wordCounts, int[] sizes) {
+		this.base = base;
+		this.format = format;
+		this.initials = initials;
+		this.wordCounts = wordCounts;
+		this.sizes = sizes;
+		shardIndex = new LetterIndex(initials);
+		loaded = new IDictionary[initials.length];
+		users = new int[initials.length];
+	}
+
+	// Read the index, no shard is loaded until a view needs it
+	public static DictionaryShards open(String base) throws IOException {
+		DataInputStream din = DictionaryResource.open(base + ".idx");
+		try {
+			if (din.readInt() != MAGIC)
+				throw new IOException("Not a dictionary index");
+			int version = din.readUnsignedShort();
+			if (version < 1 || version > VERSION)
+				throw new IOException("Unsupported dictionary index version: " + version);
+			int format = version == 1 ? FORMAT_DAWG : din.readUnsignedByte();
+			if (format != FORMAT_DAWG && format != FORMAT_LOUDS)
+				throw new IOException("Unsupported dictionary format: " + format);
+			char[] initials = din.readUTF().toCharArray();
+			int[] wordCounts = new int[initials.length];
+			int[] sizes = new int[initials.length];
+			for (int i = 0; i < initials.length; i++)
+				wordCounts[i] = din.readInt();
+			for (int i = 0; i < initials.length; i++)
+				sizes[i] = din.readInt();
+			return new DictionaryShards(base, format, initials, wordCounts, sizes);
+		} finally {
+			din.close();
+		}
+	}
+
+	// View of the words that can start on a board with these tiles, given as the chars
+	// each tile spells, loading the shards it needs. Shards no view holds are dropped
+	// first to keep the peak heap down.
+	public synchronized IDictionary acquire(String[] tiles) throws IOException {
+		boolean[] needed = new boolean[initials.length];
+		for (int i = 0; i < tiles.length; i++) {
+			int s = shardOf(tiles[i].charAt(0));
+			if (s >= 0)
+				needed[s] = true;
+		}
+
+		for (int s = 0; s < initials.length; s++)
+			if (!needed[s] && users[s] == 0)
+				loaded[s] = null;
+
+		IDictionary[] shards = new IDictionary[initials.length];
+		for (int s = 0; s < initials.length; s++) {
+			if (!needed[s])
+				continue;
+			if (loaded[s] == null)
+				loaded[s] = DictionaryResource.load(base + "_" + s + (format == FORMAT_LOUDS ? ".louds" : ".dawg"), format);
+			users[s]++;
+			shards[s] = loaded[s];
+		}
+		return new ShardedDictionary(this, shards);
+	}
+
+	// Give back a view from acquire, its shards may be dropped once no view holds them
+	public synchronized void release(IDictionary dictionary) {
+		ShardedDictionary view = (ShardedDictionary)dictionary;
+		if (view.released)
+			return;
+		view.released = true;
+		for (int s = 0; s < initials.length; s++)
+			if (view.shards[s] != null)
+				users[s]--;
+		view.shards = null;	// A view kept by mistake must not keep dropped shards reachable
+	}
+
+	// Drop every shard no view holds, e.g. when a game is over
+	public synchronized void trim() {
+		for (int s = 0; s < initials.length; s++)
+			if (users[s] == 0)
+				loaded[s] = null;
+	}
+
+	// Resource bytes of the shards currently loaded
+	public synchronized int getLoadedSize() {
+		int size = 0;
+		for (int s = 0; s < initials.length; s++)
+			if (loaded[s] != null)
+				size += sizes[s];
+		return size;
+	}
+
+	public int getFormat() {
+		return format;
+	}
+
+	// Words in all shards
+	public int getWordCount() {
+		int count = 0;
+		for (int s = 0; s < initials.length; s++)
+			count += wordCounts[s];
+		return count;
+	}
+
+	// Shard holding words starting with c, -1 if there is none
+	int shardOf(char c) {
+		return shardIndex.indexOf(c);
+	}
+}
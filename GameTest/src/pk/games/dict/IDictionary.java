@@ -0,0 +1,22 @@
+package pk.games.dict;
+
+/**
+ * A word list that can be walked one letter at a time. Nodes are plain
+ * ints so that callers can keep their position in the dictionary without
+ * allocating anything; <code>NONE</code> marks a prefix that leads nowhere.
+ */
+public interface IDictionary {
+	public static final int NONE = -1;	// No such node
+
+	// Node for the empty prefix
+	public int getRoot();
+
+	// Node reached from node by letter c, or NONE if no word continues that way
+	public int getChild(int node, char c);
+
+	// True if the prefix leading to node is a complete word
+	public boolean isWord(int node);
+
+	// True if the length chars starting at offset form a complete word
+	public boolean contains(char[] word, int offset, int length);
+}
@@ -0,0 +1,26 @@
+package pk.games.dict;
+
+// Maps the chars of an alphabet to their position in it. Chars below 256 are looked up
+// in a table, so the Latin-1 alphabets the dictionaries are built over never scan.
+final class LetterIndex {
+	private char[] chars;	// Position to char
+	private char[] latin;	// Char to position + 1 for chars below 256, 0 if not in the alphabet
+
+	LetterIndex(char[] chars) {
+		this.chars = chars;
+		latin = new char[256];
+		for (int i = 0; i < chars.length; i++)
+			if (chars[i] < 256)
+				latin[chars[i]] = (char)(i + 1);
+	}
+
+	// Position of c, -1 if it is not in the alphabet
+	int indexOf(char c) {
+		if (c < 256)
+			return latin[c] - 1;
+		for (int i = 0; i < chars.length; i++)
+			if (chars[i] == c)
+				return i;
+		return -1;
+	}
+}
@@ -0,0 +1,164 @@
+package pk.games.dict;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+
+/**
+ * Trie stored as a level-order unary degree sequence (LOUDS), read from a
+ * binary resource produced by <code>pk.games.tools.LoudsBuilder</code>. It
+ * takes about 11 bits per trie node, for devices where even the DAWG edge
+ * array is too big, at the cost of a select per lookup step.
+ *
+ * Nodes are numbered in breadth first order, root 0. Node v is written as
+ * one 1 bit per child followed by a 0 bit, so the children of v start right
+ * after the (v-1):th 0 bit, are numbered consecutively and node v+1 has
+ * its label at <code>labels[v]</code>.
+ *
+ * Resource layout, all big-endian as written by DataOutputStream:
+ * <pre>
+ * int    MAGIC
+ * short  VERSION
+ * UTF    alphabet, letter index i is alphabet.charAt(i)
+ * int    node count
+ * int    LOUDS bit vector length in ints, then the ints
+ * byte[] labels, letter index of the edge into each node but the root
+ * int    word bit vector length in ints, then the ints
+ * </pre>
+ * Bit i of a vector is bit i%32 of int i/32.
+ */
+public class LoudsDictionary implements IDictionary {
+	public static final int MAGIC = 0x4c4f5544;	// "LOUD"
+	public static final int VERSION = 1;
+
+	private static final int SAMPLE_SHIFT = 6;	// A select sample every 64 zero bits
+	private static final int SAMPLE_RATE = 1 << SAMPLE_SHIFT;
+
+	private char[] alphabet;	// Letter index to char
+	private LetterIndex letters;	// Char to letter index
+	private int nodeCount;		// Trie nodes, including the root
+	private int[] louds;		// Degree sequence, children as 1 bits, each node closed by a 0 bit
+	private byte[] labels;		// Letter index into node v+1 at v
+	private int[] words;		// Bit v set if node v ends a word
+	private int[] samples;		// Position of every SAMPLE_RATE:th 0 bit in louds
+
+	public LoudsDictionary(char[] alphabet, int nodeCount, int[] louds, byte[] labels, int[] words) {
+		this.alphabet = alphabet;
+		this.nodeCount = nodeCount;
+		this.louds = louds;
+		this.labels = labels;
+		this.words = words;
+		letters = new LetterIndex(alphabet);
+
+		// There are nodeCount zeros, one closing each node
+		samples = new int[(nodeCount + SAMPLE_RATE - 1) >>> SAMPLE_SHIFT];
+		int zeros = 0;
+		for (int pos = 0; zeros < nodeCount; pos++)
+			if ((louds[pos >>> 5] & (1 << (pos & 31))) == 0) {
+				if ((zeros & (SAMPLE_RATE - 1)) == 0)
+					samples[zeros >>> SAMPLE_SHIFT] = pos;
+				zeros++;
+			}
+	}
+
+	// Read a dictionary resource in one sequential pass
+	public static LoudsDictionary load(String name) throws IOException {
+		return (LoudsDictionary)DictionaryResource.load(name, DictionaryShards.FORMAT_LOUDS);
+	}
+
+	public static LoudsDictionary read(DataInputStream in) throws IOException {
+		if (in.readInt() != MAGIC)
+			throw new IOException("Not a LOUDS dictionary");
+		int version = in.readUnsignedShort();
+		if (version != VERSION)
+			throw new IOException("Unsupported dictionary version: " + version);
+		char[] alphabet = in.readUTF().toCharArray();
+		int nodeCount = in.readInt();
+		int[] louds = readBits(in);
+		byte[] labels = new byte[nodeCount - 1];
+		in.readFully(labels);
+		int[] words = readBits(in);
+		return new LoudsDictionary(alphabet, nodeCount, louds, labels, words);
+	}
+
+	private static int[] readBits(DataInputStream in) throws IOException {
+		int[] bits = new int[in.readInt()];
+		for (int i = 0; i < bits.length; i++)
+			bits[i] = in.readInt();
+		return bits;
+	}
+
+	public int getRoot() {
+		return 0;
+	}
+
+	public int getChild(int node, char c) {
+		int index = letters.indexOf(c);
+		if (index < 0)
+			return NONE;
+		int pos = node == 0 ? 0 : select0(node - 1) + 1;
+		int child = pos - node + 1;	// pos - node 1 bits come before pos
+		while ((louds[pos >>> 5] & (1 << (pos & 31))) != 0) {
+			int l = labels[child - 1] & 0xff;
+			if (l == index)
+				return child;
+			if (l > index)
+				return NONE;
+			pos++;
+			child++;
+		}
+		return NONE;
+	}
+
+	public boolean isWord(int node) {
+		return (words[node >>> 5] & (1 << (node & 31))) != 0;
+	}
+
+	public boolean contains(char[] word, int offset, int length) {
+		int node = 0;
+		for (int i = offset; i < offset + length && node != NONE; i++)
+			node = getChild(node, word[i]);
+		return node != NONE && isWord(node);
+	}
+
+	// Letters the dictionary is built over, in letter index order
+	public char[] getAlphabet() {
+		return alphabet;
+	}
+
+	public int getNodeCount() {
+		return nodeCount;
+	}
+
+	// Bytes taken by the bit vectors, labels and select samples
+	public int getMemory() {
+		return (louds.length + words.length + samples.length) * 4 + labels.length;
+	}
+
+	// Position of 0 bit number i, counting from 0
+	private int select0(int i) {
+		int pos = samples[i >>> SAMPLE_SHIFT];
+		int left = i & (SAMPLE_RATE - 1);	// Zeros still to pass
+		if (left == 0)
+			return pos;
+		pos++;
+		int w = pos >>> 5;
+		int zeros = ~louds[w] & (-1 << (pos & 31));
+		for (;;) {
+			int count = bitCount(zeros);
+			if (count >= left)
+				break;
+			left -= count;
+			zeros = ~louds[++w];
+		}
+		while (--left > 0)
+			zeros &= zeros - 1;
+		return (w << 5) + bitCount((zeros & -zeros) - 1);
+	}
+
+	private static int bitCount(int x) {
+		x = x - ((x >>> 1) & 0x55555555);
+		x = (x & 0x33333333) + ((x >>> 2) & 0x33333333);
+		x = (x + (x >>> 4)) & 0x0f0f0f0f;
+		return (x * 0x01010101) >>> 24;
+	}
+}
@@ -0,0 +1,59 @@
+package pk.games.dict;
+
+/**
+ * View of a DictionaryShards holding the shards for one board. The root is
+ * node 0; every other node is the shard number + 1 in the top byte and the
+ * node inside that shard in the lower bytes. A view must not be used once
+ * it has been released, doing so throws IllegalStateException.
+ */
+public class ShardedDictionary implements IDictionary {
+	private static final int SHARD_SHIFT = 24;
+	private static final int NODE_MASK = 0x00ffffff;
+
+	private DictionaryShards owner;	// Maps initials to shards
+	IDictionary[] shards;			// Shards of this view, null for the ones not held, the array null once released
+	boolean released;				// Set once the view has been given back
+
+	ShardedDictionary(DictionaryShards owner, IDictionary[] shards) {
+		this.owner = owner;
+		this.shards = shards;
+	}
+
+	public int getRoot() {
+		held();
+		return 0;
+	}
+
+	public int getChild(int node, char c) {
+		IDictionary[] shards = held();
+		if (node == 0) {
+			int s = owner.shardOf(c);
+			if (s < 0 || shards[s] == null)
+				return NONE;
+			int n = shards[s].getChild(shards[s].getRoot(), c);
+			return n == NONE ? NONE : ((s + 1) << SHARD_SHIFT) | n;
+		}
+		int n = shards[(node >>> SHARD_SHIFT) - 1].getChild(node & NODE_MASK, c);
+		return n == NONE ? NONE : (node & ~NODE_MASK) | n;
+	}
+
+	public boolean isWord(int node) {
+		IDictionary[] shards = held();
+		return node != 0 && shards[(node >>> SHARD_SHIFT) - 1].isWord(node & NODE_MASK);
+	}
+
+	public boolean contains(char[] word, int offset, int length) {
+		int node = 0;
+		for (int i = offset; i < offset + length && node != NONE; i++)
+			node = getChild(node, word[i]);
+		return node != NONE && isWord(node);
+	}
+
+	// The shards of the view, which is not to be used once released
+	private IDictionary[] held() {
+		IDictionary[] held = shards;
+		if (held == null)
+			throw new IllegalStateException("Dictionary view used after release");
+		return held;
+	}
+}
@@ -0,0 +1,163 @@
+package pk.games.dict;
+
+/**
+ * Trie over the game alphabet built word by word, mostly extracted from a
+ * bigger dictionary for one board.
+ * Nodes are stored first-child/next-sibling in flat arrays with the
+ * siblings kept sorted by letter, so a lookup is a short scan per letter
+ * and never allocates.
+ */
+public class TrieDictionary implements IDictionary {
+	private char[] letter;		// Letter on the edge leading into each node
+	private int[] child;		// First child of each node
+	private int[] sibling;		// Next sibling of each node, sorted by letter
+	private boolean[] word;		// True if the node ends a word
+	private int nodeCount;		// Number of nodes in use
+	private int wordCount;		// Number of words added
+
+	public TrieDictionary(int capacity) {
+		capacity = Math.max(capacity, 1);
+		letter = new char[capacity];
+		child = new int[capacity];
+		sibling = new int[capacity];
+		word = new boolean[capacity];
+		nodeCount = 1;					// Node 0 is the root
+		child[0] = sibling[0] = NONE;
+	}
+
+	// Copy every word of source that can be spelled from tiles, each tile given as
+	// the chars it spells and used at most once. Holds all words that can be found
+	// on a board with those tiles, so the board can be played without the full dictionary.
+	public static TrieDictionary extract(IDictionary source, String[] tiles) {
+		// Distinct tiles and how often each occurs
+		String[] distinct = new String[tiles.length];
+		int[] counts = new int[tiles.length];
+		int n = 0;
+		int chars = 0;
+		for (int i = 0; i < tiles.length; i++) {
+			int d = 0;
+			while (d < n && !distinct[d].equals(tiles[i]))
+				d++;
+			if (d == n)
+				distinct[n++] = tiles[i];
+			counts[d]++;
+			chars += tiles[i].length();
+		}
+
+		TrieDictionary dict = new TrieDictionary(256);
+		dict.extract(source, source.getRoot(), distinct, counts, n, new char[chars], 0);
+		dict.trim();
+		return dict;
+	}
+
+	private void extract(IDictionary source, int node, String[] tiles, int[] counts, int distinct, char[] path, int length) {
+		if (length > 0 && source.isWord(node))
+			add(path, 0, length);
+		for (int d = 0; d < distinct; d++) {
+			if (counts[d] == 0)
+				continue;
+			String tile = tiles[d];
+			int next = node;
+			for (int c = 0; c < tile.length() && next != NONE; c++) {
+				next = source.getChild(next, tile.charAt(c));
+				path[length + c] = tile.charAt(c);
+			}
+			if (next == NONE)
+				continue;
+			counts[d]--;
+			extract(source, next, tiles, counts, distinct, path, length + tile.length());
+			counts[d]++;
+		}
+	}
+
+	// Add a word, creating the nodes that are missing
+	public void add(char[] data, int offset, int length) {
+		int node = 0;
+		for (int i = offset; i < offset + length; i++) {
+			char c = data[i];
+			int prev = NONE;
+			int n = child[node];
+			while (n != NONE && letter[n] < c) {
+				prev = n;
+				n = sibling[n];
+			}
+			if (n == NONE || letter[n] != c) {
+				int created = newNode(c, n);
+				if (prev == NONE)
+					child[node] = created;
+				else
+					sibling[prev] = created;
+				n = created;
+			}
+			node = n;
+		}
+		if (!word[node]) {
+			word[node] = true;
+			wordCount++;
+		}
+	}
+
+	public int getRoot() {
+		return 0;
+	}
+
+	public int getChild(int node, char c) {
+		int n = child[node];
+		while (n != NONE && letter[n] < c)
+			n = sibling[n];
+		return (n != NONE && letter[n] == c) ? n : NONE;
+	}
+
+	public boolean isWord(int node) {
+		return word[node];
+	}
+
+	public boolean contains(char[] data, int offset, int length) {
+		int node = 0;
+		for (int i = offset; i < offset + length && node != NONE; i++)
+			node = getChild(node, data[i]);
+		return node != NONE && word[node];
+	}
+
+	// Number of words in the dictionary
+	public int getWordCount() {
+		return wordCount;
+	}
+
+	// Number of trie nodes, including the root
+	public int getNodeCount() {
+		return nodeCount;
+	}
+
+	private int newNode(char c, int next) {
+		if (nodeCount == letter.length)
+			grow(nodeCount * 2);
+		int n = nodeCount++;
+		letter[n] = c;
+		child[n] = NONE;
+		sibling[n] = next;
+		word[n] = false;
+		return n;
+	}
+
+	// Drop the unused tail of the node arrays once all words are added
+	private void trim() {
+		if (nodeCount < letter.length)
+			grow(nodeCount);
+	}
+
+	private void grow(int capacity) {
+		char[] l = new char[capacity];
+		int[] c = new int[capacity];
+		int[] s = new int[capacity];
+		boolean[] w = new boolean[capacity];
+		System.arraycopy(letter, 0, l, 0, nodeCount);
+		System.arraycopy(child, 0, c, 0, nodeCount);
+		System.arraycopy(sibling, 0, s, 0, nodeCount);
+		System.arraycopy(word, 0, w, 0, nodeCount);
+		letter = l;
+		child = c;
+		sibling = s;
+		word = w;
+	}
+}
@@ -4,12 +4,28 @@ import javax.microedition.lcdui.*;
 import javax.microedition.midlet.MIDlet;
 import javax.microedition.midlet.MIDletStateChangeException;
 
+import pk.games.board.DiceGenerator;
+import pk.games.board.QualityGenerator;
+import pk.games.dict.DictionaryShards;
+import pk.games.solver.Adjacency;
+import pk.games.solver.BoardSolver;
+import pk.games.test1.BoardPool;
 import pk.games.test1.Test1Canvas;
 
 public class Test1GUI extends MIDlet{
+	private static final int BOARD_SIZE = 5;	// nxn board
+	private static final int TOPOLOGY = Adjacency.SQUARE;	// Which tiles touch
+	private static final int READY_BOARDS = 2;	// Boards the pool keeps ready
+	private static final int MIN_WORDS = 20;	// Fewest words on a board worth playing
+	private static final int MIN_LONGEST = 5;	// Shortest longest word on a board worth playing
+	private static final int MAX_ATTEMPTS = 50;	// Boards drawn before settling for the last one
+	private static final long LOW_MEMORY = 1024*1024;	// Heaps smaller than this use the compact dictionary
+	
 	protected Display display;
 	private Test1Canvas gameScr;
 	private MainMenuScr mainMenuScr;
+	private DictionaryShards shards;	// Dictionary index, shards are loaded while building boards
+	private BoardPool boardPool;	// Prepares the next boards while in the menu
 	
 	public Test1GUI() {}
 	
@@ -17,7 +33,17 @@ public class Test1GUI extends MIDlet{
 		return display;
 	}
 
+	// Sharded dictionary used to validate words, index read on first use.
+	// Small heaps get the LOUDS shards, several times smaller but slower to walk.
+	public DictionaryShards getDictionary() throws Exception {
+		if (shards == null)
+			shards = DictionaryShards.open(Runtime.getRuntime().totalMemory() < LOW_MEMORY ? "/compact" : "/words");
+		return shards;
+	}
+
 	protected void destroyApp(boolean arg0) throws MIDletStateChangeException {
+		if (boardPool != null)
+			boardPool.stop();
 		System.gc();
 		notifyDestroyed();
 	}
@@ -28,11 +54,23 @@ public class Test1GUI extends MIDlet{
 		display = Display.getDisplay(this);
 		try{
 			mainMenuScr = new MainMenuScr(this);
+			if (boardPool == null) {
+				BoardSolver solver = new BoardSolver(null);
+				solver.setTopology(TOPOLOGY);
+				QualityGenerator generator = new QualityGenerator(DiceGenerator.forSize(BOARD_SIZE), solver, MAX_ATTEMPTS);
+				generator.setShards(getDictionary());
+				generator.setWordRange(MIN_WORDS, Integer.MAX_VALUE);
+				generator.setLongestRange(MIN_LONGEST, Integer.MAX_VALUE);
+				boardPool = new BoardPool(BOARD_SIZE, TOPOLOGY, READY_BOARDS, getDictionary(), generator);
+				boardPool.start();
+			}
 		} catch (Exception ex) {}
 		mainMenuScreenShow(null);
 	}
 
 	public void mainMenuScreenShow(Alert alert) {
+		if (boardPool != null)
+			boardPool.resume();
 		if (alert==null)
 			display.setCurrent(mainMenuScr);
 		else
@@ -48,7 +86,8 @@ public class Test1GUI extends MIDlet{
 	protected void gameScreenShow() {
 		try { 	
 			gameScr = null;
-			gameScr = new Test1Canvas(this);      
+			boardPool.pause();
+			gameScr = new Test1Canvas(this, boardPool.take());
 			gameScr.start();
 			display.setCurrent(gameScr);
 		} catch (Exception ex) {}  
@@ -0,0 +1,107 @@
+package pk.games.solver;
+
+import java.util.Hashtable;
+
+/**
+ * Neighbour lists for every tile of a board, worked out once per board
+ * size and topology. The neighbours of tile t, tiles numbered row by row,
+ * are <code>getNeighbours()[i]</code> for <code>getOffsets()[t] &lt;= i &lt;
+ * getOffsets()[t+1]</code>, so the hot loops walk two flat arrays instead
+ * of doing coordinate arithmetic.
+ */
+public class Adjacency {
+	public static final int SQUARE = 0;	// Eight neighbours, edges are walls
+	public static final int TORUS = 1;	// Eight neighbours, edges wrap around
+	public static final int HEX = 2;	// Six neighbours, odd rows shifted half a tile right
+
+	private static Hashtable cache = new Hashtable();	// "size:topology" to Adjacency
+
+	private int size;			// Tiles on each row and column
+	private int topology;		// SQUARE, TORUS or HEX
+	private int[] offsets;		// Start of each tile's neighbours, one extra entry at the end
+	private int[] neighbours;	// All neighbour lists back to back
+
+	private Adjacency(int size, int topology) {
+		this.size = size;
+		this.topology = topology;
+		int tiles = size * size;
+		offsets = new int[tiles + 1];
+		int[] list = new int[tiles * 8];
+		int n = 0;
+		for (int t = 0; t < tiles; t++) {
+			offsets[t] = n;
+			int row = t / size;
+			int col = t % size;
+			for (int dr = -1; dr <= 1; dr++)
+				for (int dc = -1; dc <= 1; dc++) {
+					if ((dr == 0 && dc == 0) || !isStep(row, dr, dc))
+						continue;
+					int r = row + dr;
+					int c = col + dc;
+					if (topology == TORUS) {
+						r = (r + size) % size;
+						c = (c + size) % size;
+					}
+					else if (r < 0 || r >= size || c < 0 || c >= size)
+						continue;
+					int next = r * size + c;
+					if (next != t && !contains(list, offsets[t], n, next))
+						list[n++] = next;
+				}
+		}
+		offsets[tiles] = n;
+		neighbours = new int[n];
+		System.arraycopy(list, 0, neighbours, 0, n);
+	}
+
+	// Shared tables for a board size and topology, built on first use
+	public static synchronized Adjacency get(int size, int topology) {
+		if (topology < SQUARE || topology > HEX)
+			throw new IllegalArgumentException("Unknown topology: " + topology);
+		String key = size + ":" + topology;
+		Adjacency a = (Adjacency)cache.get(key);
+		if (a == null) {
+			a = new Adjacency(size, topology);
+			cache.put(key, a);
+		}
+		return a;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public int getTopology() {
+		return topology;
+	}
+
+	public int[] getOffsets() {
+		return offsets;
+	}
+
+	public int[] getNeighbours() {
+		return neighbours;
+	}
+
+	// True if tiles a and b touch
+	public boolean isNeighbour(int a, int b) {
+		for (int i = offsets[a]; i < offsets[a + 1]; i++)
+			if (neighbours[i] == b)
+				return true;
+		return false;
+	}
+
+	// Hex rows only touch the two tiles above and below on their shifted side
+	private boolean isStep(int row, int dr, int dc) {
+		if (topology != HEX || dr == 0)
+			return true;
+		return (row & 1) == 0 ? dc <= 0 : dc >= 0;
+	}
+
+	private static boolean contains(int[] list, int from, int to, int value) {
+		for (int i = from; i < to; i++)
+			if (list[i] == value)
+				return true;
+		return false;
+	}
+}
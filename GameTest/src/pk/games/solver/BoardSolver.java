@@ -0,0 +1,150 @@
+package pk.games.solver;
+
+import java.util.Hashtable;
+
+import pk.games.board.Alphabet;
+import pk.games.dict.IDictionary;
+
+/**
+ * Finds every dictionary word on a board. A word is a path of tiles
+ * spelling at least MIN_LENGTH letters, where each tile touches the
+ * previous one in the board's topology and no tile is used twice; the same rule GameBoard enforces
+ * while the player marks tiles. The search is a depth first walk that
+ * follows the dictionary along the path and backs off as soon as no word
+ * starts with the letters so far.
+ */
+public class BoardSolver {
+	public static final int MIN_LENGTH = 3;	// Fewest letters in a word that counts
+
+	private IDictionary dictionary;	// Words to look for
+	private int size;				// Tiles on each row and column
+	private int topology = Adjacency.SQUARE;	// Which tiles touch
+	private int[] offsets;			// Start of each tile's neighbours
+	private int[] neighbours;		// Neighbour lists, see Adjacency
+	private int[] tiles;			// Board tile ids, row by row
+	private char[] tileChars;		// Chars of every tile id, see Alphabet
+	private int[] tileOffsets;		// Start of each tile id's chars
+	private TilePath used;			// Tiles on the current path
+	private char[] path;			// Letters of the current path
+	private Hashtable found;		// Words found so far, to skip duplicates
+	private String[] words;			// Words found so far, in order found
+	private int count;				// Number of words found
+
+	public BoardSolver(IDictionary dictionary) {
+		this.dictionary = dictionary;
+		found = new Hashtable();
+		words = new String[64];
+	}
+
+	// Dictionary for the next solve, e.g. a view holding the shards for one board
+	public void setDictionary(IDictionary dictionary) {
+		this.dictionary = dictionary;
+	}
+
+	// Topology of the boards to solve, one of the Adjacency constants
+	public void setTopology(int topology) {
+		if (topology != this.topology) {
+			this.topology = topology;
+			tiles = null;
+		}
+	}
+
+	// Find all words on a board of tile ids, returns the number of words found
+	public int solve(int[][] board, Alphabet alphabet) {
+		return solve(board, alphabet, 0, board.length * board.length);
+	}
+
+	// Find the words whose first tile is in [from, to), tiles numbered row by row.
+	// Lets the search be split by start tile, the union over all ranges is the full solve.
+	public int solve(int[][] board, Alphabet alphabet, int from, int to) {
+		int n = board.length;
+		if (n != size || tiles == null) {
+			size = n;
+			Adjacency adjacency = Adjacency.get(n, topology);
+			offsets = adjacency.getOffsets();
+			neighbours = adjacency.getNeighbours();
+			tiles = new int[n * n];
+			used = new TilePath(adjacency);
+			path = null;
+		}
+		if (path == null || path.length < n * n * alphabet.getMaxLength())
+			path = new char[n * n * alphabet.getMaxLength()];
+		tileChars = alphabet.getChars();
+		tileOffsets = alphabet.getOffsets();
+		for (int row = 0; row < n; row++)
+			for (int col = 0; col < n; col++)
+				tiles[row * n + col] = board[row][col];
+
+		found.clear();
+		for (int i = 0; i < count; i++)
+			words[i] = null;
+		count = 0;
+
+		int root = dictionary.getRoot();
+		for (int i = from; i < to; i++)
+			search(i, root, 0);
+		sort(words, count);
+		return count;
+	}
+
+	// Number of words found by the last solve
+	public int getWordCount() {
+		return count;
+	}
+
+	// Word i of the last solve, words are sorted alphabetically
+	public String getWord(int i) {
+		return words[i];
+	}
+
+	// Copy of the words found by the last solve, sorted alphabetically
+	public String[] getWords() {
+		String[] result = new String[count];
+		System.arraycopy(words, 0, result, 0, count);
+		return result;
+	}
+
+	private void search(int tile, int node, int length) {
+		int id = tiles[tile];
+		for (int i = tileOffsets[id]; i < tileOffsets[id + 1]; i++) {
+			node = dictionary.getChild(node, tileChars[i]);
+			if (node == IDictionary.NONE)
+				return;
+			path[length++] = tileChars[i];
+		}
+		if (length >= MIN_LENGTH && dictionary.isWord(node))
+			addWord(length);
+
+		used.push(tile);
+		for (int i = offsets[tile]; i < offsets[tile + 1]; i++) {
+			int next = neighbours[i];
+			if (!used.contains(next))
+				search(next, node, length);
+		}
+		used.pop();
+	}
+
+	private void addWord(int length) {
+		String w = new String(path, 0, length);
+		if (found.put(w, w) != null)
+			return;
+		if (count == words.length) {
+			String[] grown = new String[count * 2];
+			System.arraycopy(words, 0, grown, 0, count);
+			words = grown;
+		}
+		words[count++] = w;
+	}
+
+	// Shell sort of the first length strings, CLDC has no Arrays.sort
+	public static void sort(String[] a, int length) {
+		for (int gap = length / 2; gap > 0; gap /= 2)
+			for (int i = gap; i < length; i++) {
+				String t = a[i];
+				int j = i;
+				for (; j >= gap && a[j - gap].compareTo(t) > 0; j -= gap)
+					a[j] = a[j - gap];
+				a[j] = t;
+			}
+	}
+}
@@ -0,0 +1,109 @@
+package pk.games.solver;
+
+/**
+ * Points for words: a table of points by word length, plus optional
+ * points for each letter in the word. Also works out the final scores of
+ * a multiplayer game, where words found by more than one player are
+ * crossed out and score nothing.
+ */
+public class Scoring {
+	// Boggle points by length: 3-4 letters 1, 5 letters 2, 6 letters 3, 7 letters 5, longer 11
+	public static final int[] BOGGLE = {0, 0, 0, 1, 1, 2, 3, 5, 11};
+
+	private int[] lengthPoints;		// Points by length, longer words use the last entry
+	private int[] letterPoints;		// Extra points by char for chars below 256, null if none
+	private char[] otherLetters;	// Chars from 256 up that have extra points
+	private int[] otherPoints;		// Their points
+
+	public Scoring(int[] lengthPoints) {
+		this.lengthPoints = lengthPoints;
+	}
+
+	public static Scoring boggle() {
+		return new Scoring(BOGGLE);
+	}
+
+	// Give each letter extra points, added to the length points for every occurrence
+	public void setLetterValues(char[] letters, int[] values) {
+		letterPoints = new int[256];
+		int others = 0;
+		for (int i = 0; i < letters.length; i++)
+			if (letters[i] >= 256)
+				others++;
+		otherLetters = new char[others];
+		otherPoints = new int[others];
+		others = 0;
+		for (int i = 0; i < letters.length; i++) {
+			if (letters[i] < 256)
+				letterPoints[letters[i]] = values[i];
+			else {
+				otherLetters[others] = letters[i];
+				otherPoints[others++] = values[i];
+			}
+		}
+	}
+
+	// Points for the length chars at offset
+	public int score(char[] word, int offset, int length) {
+		int points = lengthPoints[Math.min(length, lengthPoints.length - 1)];
+		if (letterPoints != null)
+			for (int i = offset; i < offset + length; i++)
+				points += letterPoints(word[i]);
+		return points;
+	}
+
+	public int score(String word) {
+		int length = word.length();
+		int points = lengthPoints[Math.min(length, lengthPoints.length - 1)];
+		if (letterPoints != null)
+			for (int i = 0; i < length; i++)
+				points += letterPoints(word.charAt(i));
+		return points;
+	}
+
+	// Sum of the points of count words
+	public int total(String[] words, int count) {
+		int points = 0;
+		for (int i = 0; i < count; i++)
+			points += score(words[i]);
+		return points;
+	}
+
+	// Final score of every player. Each list must be sorted and free of duplicates.
+	// The lists are merged in one pass; a word on more than one list scores for no one.
+	public int[] finalScores(String[][] lists) {
+		int players = lists.length;
+		int[] scores = new int[players];
+		int[] next = new int[players];
+		for (;;) {
+			// Smallest word at the head of any list
+			String word = null;
+			for (int p = 0; p < players; p++)
+				if (next[p] < lists[p].length && (word == null || lists[p][next[p]].compareTo(word) < 0))
+					word = lists[p][next[p]];
+			if (word == null)
+				return scores;
+
+			// Step past it everywhere, it only counts if one player has it
+			int owner = -1;
+			int found = 0;
+			for (int p = 0; p < players; p++)
+				if (next[p] < lists[p].length && lists[p][next[p]].equals(word)) {
+					next[p]++;
+					owner = p;
+					found++;
+				}
+			if (found == 1)
+				scores[owner] += score(word);
+		}
+	}
+
+	private int letterPoints(char c) {
+		if (c < 256)
+			return letterPoints[c];
+		for (int i = 0; i < otherLetters.length; i++)
+			if (otherLetters[i] == c)
+				return otherPoints[i];
+		return 0;
+	}
+}
@@ -0,0 +1,84 @@
+package pk.games.solver;
+
+/**
+ * A path of distinct tiles on a board, tiles numbered row by row.
+ * Membership is kept as a bitmask, one long for boards of up to 64 tiles
+ * and an array of longs beyond that, next to a stack holding the order
+ * the tiles were added in. Adding, removing and testing a tile are all
+ * constant time, and clearing only touches the tiles on the path.
+ */
+public class TilePath {
+	private Adjacency adjacency;	// Which tiles touch
+	private long bits;		// Tiles on the path, boards up to 8x8
+	private long[] words;	// Tiles on the path, larger boards
+	private int[] stack;	// Tiles in the order they were added
+	private int length;		// Number of tiles on the path
+
+	public TilePath(Adjacency adjacency) {
+		this.adjacency = adjacency;
+		int size = adjacency.getSize();
+		int tiles = size * size;
+		if (tiles > 64)
+			words = new long[(tiles + 63) >> 6];
+		stack = new int[tiles];
+	}
+
+	// Add a tile to the end of the path, the tile must not be on the path already
+	public void push(int tile) {
+		if (words == null)
+			bits |= 1L << tile;
+		else
+			words[tile >> 6] |= 1L << tile;
+		stack[length++] = tile;
+	}
+
+	// Remove and return the last tile of the path
+	public int pop() {
+		int tile = stack[--length];
+		if (words == null)
+			bits &= ~(1L << tile);
+		else
+			words[tile >> 6] &= ~(1L << tile);
+		return tile;
+	}
+
+	// True if tile is on the path
+	public boolean contains(int tile) {
+		if (words == null)
+			return (bits & (1L << tile)) != 0;
+		return (words[tile >> 6] & (1L << tile)) != 0;
+	}
+
+	// Last tile of the path, -1 if the path is empty
+	public int last() {
+		return length == 0 ? -1 : stack[length - 1];
+	}
+
+	// Tile number i on the path, counted from the first
+	public int get(int i) {
+		return stack[i];
+	}
+
+	public int length() {
+		return length;
+	}
+
+	public boolean isEmpty() {
+		return length == 0;
+	}
+
+	// True if tile may be added: the path is empty or it touches the last tile
+	public boolean isNeighbour(int tile) {
+		return length == 0 || adjacency.isNeighbour(stack[length - 1], tile);
+	}
+
+	// Remove all tiles from the path
+	public void clear() {
+		if (words == null)
+			bits = 0;
+		else
+			while (length > 0)
+				words[stack[--length] >> 6] = 0;
+		length = 0;
+	}
+}
@@ -0,0 +1,163 @@
+package pk.games.test1;
+
+import java.util.Random;
+
+import pk.games.board.Alphabet;
+import pk.games.board.IBoardGenerator;
+import pk.games.board.QualityGenerator;
+import pk.games.dict.DictionaryShards;
+import pk.games.dict.IDictionary;
+import pk.games.dict.TrieDictionary;
+import pk.games.solver.BoardSolver;
+
+// Keeps a few boards generated, drawn and solved ahead of time on a low priority
+// thread, so starting a game only has to take one. The worker is paused while a
+// game runs and fills the pool again while the player is in the menus.
+// Each board gets a small trie of the words its letters can spell, pulled out of the
+// dictionary shards while the board is built, so no shard is needed during play.
+public class BoardPool implements Runnable {
+	private int boardSize;				// How many tiles on each row and column
+	private int topology;				// Board topology, one of the Adjacency constants
+	private DictionaryShards shards;	// Dictionary the board tries are extracted from
+	private IBoardGenerator generator;	// Fills the boards
+	private QualityGenerator quality;	// The generator if it already solves the boards it keeps, else null
+	private BoardSolver solver;			// Solves boards before they are handed out, unless quality did
+	private Random seeds;				// Seed for each new board
+
+	private GameBoard[] ready;			// Ring buffer of finished boards
+	private int first;					// Index of the oldest ready board
+	private int count;					// Number of ready boards
+	private boolean paused;				// Worker waits while paused
+	private int takers;					// Threads waiting in take() for the worker's next board
+	private Thread worker;				// Null when stopped
+
+	public BoardPool(int boardSize, int topology, int capacity, DictionaryShards shards, IBoardGenerator generator) {
+		this.boardSize = boardSize;
+		this.topology = topology;
+		this.shards = shards;
+		this.generator = generator;
+		if (generator instanceof QualityGenerator)
+			quality = (QualityGenerator)generator;
+		solver = new BoardSolver(null);
+		solver.setTopology(topology);
+		seeds = new Random();
+		ready = new GameBoard[capacity];
+	}
+
+	public synchronized void start() {
+		if (worker == null) {
+			worker = new Thread(this);
+			worker.setPriority(Thread.MIN_PRIORITY);
+			worker.start();
+		}
+	}
+
+	public synchronized void stop() {
+		worker = null;
+		notifyAll();
+	}
+
+	// Stop filling the pool, e.g. while a game is running
+	public synchronized void pause() {
+		paused = true;
+	}
+
+	public synchronized void resume() {
+		paused = false;
+		notifyAll();
+	}
+
+	// Number of boards ready to be taken
+	public synchronized int getReadyCount() {
+		return count;
+	}
+
+	// Take the oldest ready board. If none is ready, wait for the one the worker is
+	// building, even when paused, rather than building a second board alongside it.
+	// A board is only built right here when the worker is stopped.
+	public GameBoard take() throws Exception {
+		synchronized (this) {
+			takers++;
+			notifyAll();
+			Thread building = worker;
+			if (count == 0 && building != null)
+				building.setPriority(Thread.NORM_PRIORITY);	// Not to wait behind a low priority thread
+			while (count == 0 && worker != null) {
+				try {
+					wait();
+				} catch (InterruptedException e) { }
+			}
+			takers--;
+			if (building != null && takers == 0)
+				building.setPriority(Thread.MIN_PRIORITY);
+			if (count > 0) {
+				GameBoard board = ready[first];
+				ready[first] = null;
+				first = (first + 1) % ready.length;
+				count--;
+				notifyAll();
+				shards.trim();
+				return board;
+			}
+		}
+		return build();
+	}
+
+	public void run() {
+		Thread current = Thread.currentThread();
+		while (true) {
+			synchronized (this) {
+				while (worker == current && ((paused && takers <= count) || count == ready.length)) {
+					try {
+						wait();
+					} catch (InterruptedException e) { }
+				}
+				if (worker != current)
+					return;
+			}
+
+			GameBoard board;
+			try {
+				board = build();
+			} catch (Exception e) {
+				stop();
+				return;
+			}
+
+			synchronized (this) {
+				if (count < ready.length) {
+					ready[(first + count) % ready.length] = board;
+					count++;
+					notifyAll();
+				}
+			}
+		}
+	}
+
+	// Generate, prune the dictionary for, draw and solve a board, unless the generator
+	// solved it already while checking its quality. One board is built
+	// at a time, take() may build one while a stopped worker finishes its last.
+	private GameBoard build() throws Exception {
+		synchronized (solver) {
+			int[][] letters = new int[boardSize][boardSize];
+			generator.generate(letters, seeds.nextLong());
+
+			// Words the board's tiles can spell, the shards are given back right away
+			Alphabet alphabet = generator.getAlphabet();
+			String[] tiles = alphabet.spell(letters);
+			IDictionary shardView = shards.acquire(tiles);
+			IDictionary dictionary = TrieDictionary.extract(shardView, tiles);
+			shards.release(shardView);
+
+			GameBoard board = new GameBoard(letters, alphabet, topology, dictionary);
+			String[] solution = quality != null ? quality.getWords() : null;
+			if (solution == null) {
+				solver.setDictionary(dictionary);
+				solver.solve(letters, alphabet);
+				solution = solver.getWords();
+			}
+			board.setSolution(solution);
+			return board;
+		}
+	}
+}
@@ -4,19 +4,33 @@ import java.util.TimerTask;
 import javax.microedition.lcdui.Graphics;
 
 public class Clock extends TimerTask {	
+	public static final int WIDTH = 108;	// Width of the timer box
+	public static final int HEIGHT = 15;	// Height of the timer box
+
 	int left;	// Time left
+	int shown = -1;	// Time left when the box was last reported dirty
+	Scheduler scheduler;	// Woken on every tick
 
-	public Clock(int startTime) { left = startTime; }
-	public void run() { left--; }
+	public Clock(int startTime, Scheduler scheduler) { left = startTime; this.scheduler = scheduler; }
+	public void run() { if (--left <= 0) cancel(); scheduler.wake(); }
 	public int getTimeLeft() { return this.left; }
 	
+	// Add the timer box, drawn at x,y, to the dirty region if the time changed since the last call
+	public void addDirty(DirtyRegion dirty, int x, int y) {
+		int now = left;
+		if (now != shown) {
+			shown = now;
+			dirty.add(x,y,WIDTH+1,HEIGHT+1);
+		}
+	}
+	
 	public void renderTime(Graphics g, CustomFont f, int x, int y) {
 		
 		// draw the timer box
 		g.setColor(0x333388);
-		g.fillRect(x,y,108,15);
+		g.fillRect(x,y,WIDTH,HEIGHT);
 		g.setColor(0x000000);
-		g.drawRect(x,y,108,15);
+		g.drawRect(x,y,WIDTH,HEIGHT);
 
 		// draw the time left string
 		int m = left / 60;
@@ -36,6 +36,10 @@ package pk.games.test1;
  * nuclear facility. 
  */
 
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
 import javax.microedition.lcdui.Font;
 import javax.microedition.lcdui.Graphics;
 import javax.microedition.lcdui.Image;
@@ -51,12 +55,21 @@ import javax.microedition.lcdui.Image;
 */
 public class CustomFont 
 {
+    private static final int GLYPHS = 128; // chars in a png strip without metrics
+    private static final int METRICS_MAGIC = 0x464e544d; // "FNTM"
+    private static final int METRICS_VERSION = 1;
+    
     private int style;
     private int size;
     private int baseline;
     private int height;
     private int width;
+    private int glyphs;     // chars in the png strip, from char 0 on
     private Image image;
+    private int[] glyphX;   // x of each glyph's cell in the strip
+    private int[] advances; // x step after each glyph, null when monospaced
+    private char[] single = new char[ 1 ]; // buffer for drawChar
+    private Font system = Font.getDefaultFont(); // chars not in the strip
     
     /**
     * Returns a soft font based on the specified 
@@ -64,6 +77,11 @@ public class CustomFont
     * The resource name must refer to a png file.
     * The size and style constants are defined
     * on the Font class.
+    * 
+    * Metrics written by pk.games.tools.FontMetricsBuilder
+    * are read from the same name with a .fnt extension.
+    * Without them the strip is taken to hold 128 glyphs
+    * and the baseline is found by scanning the png.
     */
     public static CustomFont getFont( 
         String inName, int inStyle, int inSize )
@@ -81,11 +99,13 @@ public class CustomFont
                 "Could not locate font: " + filename + " : " +  t );
         }
         
-        return new CustomFont( i, inSize, inStyle );
+        String metrics = filename.endsWith( ".png" ) 
+            ? filename.substring( 0, filename.length() - 4 ) : filename;
+        return new CustomFont( i, inSize, inStyle, metrics + ".fnt" );
     }
 
     private CustomFont( 
-        Image inImage, int inStyle, int inSize )
+        Image inImage, int inStyle, int inSize, String inMetrics )
     {
         image = inImage;
         style = inStyle;
@@ -94,8 +114,17 @@ public class CustomFont
         try
         {
             height = image.getHeight();
-            width  = image.getWidth() / 128;
-            baseline = calculateBaseline();
+            if ( !readMetrics( inMetrics ) )
+            {
+                glyphs = GLYPHS;
+                width  = image.getWidth() / GLYPHS;
+                baseline = calculateBaseline();
+            }
+            glyphX = new int[ glyphs ];
+            for ( int i = 0; i < glyphs; i++ )
+            {
+                glyphX[ i ] = i * width;
+            }
         }
         catch ( Throwable t )
         {
@@ -105,6 +134,61 @@ public class CustomFont
         }
     }
     
+    /**
+    * Reads the metrics resource, returns false if there is
+    * none or it does not match the image.
+    */
+    private boolean readMetrics( String name )
+    {
+        InputStream in = getClass().getResourceAsStream( name );
+        if ( in == null )
+        {
+            return false;
+        }
+        DataInputStream din = new DataInputStream( in );
+        try
+        {
+            if ( din.readInt() != METRICS_MAGIC 
+                || din.readUnsignedShort() != METRICS_VERSION )
+            {
+                return false;
+            }
+            int n = din.readUnsignedShort();
+            int h = din.readUnsignedByte();
+            int w = din.readUnsignedByte();
+            int b = din.readUnsignedByte();
+            if ( h != height || n * w != image.getWidth() )
+            {
+                return false;
+            }
+            if ( din.readBoolean() )
+            {
+                int[] a = new int[ n ];
+                for ( int i = 0; i < n; i++ )
+                {
+                    a[ i ] = din.readUnsignedByte();
+                }
+                advances = a;
+            }
+            glyphs = n;
+            width = w;
+            baseline = b;
+            return true;
+        }
+        catch ( IOException e )
+        {
+            return false;
+        }
+        finally
+        {
+            try
+            {
+                din.close();
+            }
+            catch ( IOException e ) { }
+        }
+    }
+    
     private int calculateBaseline()
     {
         // get baseline: defaults to last row
@@ -141,14 +225,23 @@ public class CustomFont
     
     public int charsWidth( char[] ch, int offset, int length )
     {
-        // monospaced font makes this an easy calculation
-        return length * width;
+        int total = 0;
+        for ( int i = offset; i < offset + length; i++ )
+        {
+            total += charWidth( ch[ i ] );
+        }
+        return total;
     }
     
     public int charWidth( char ch )
     {
-        // we're monospaced so all are equal
-        return width;
+        if ( ch >= glyphs )
+        {
+            // not in the strip, drawn with the system font
+            return system.charWidth( ch );
+        }
+        // monospaced fonts use the cell width
+        return advances == null ? width : advances[ ch ];
     }
     
     public int getBaselinePosition()
@@ -208,18 +301,15 @@ public class CustomFont
     public void drawChar( 
         Graphics g, char character, int x, int y, int anchor )
     {
-        int clipX = g.getClipX();
-        int clipY = g.getClipY();
-        int clipW = g.getClipWidth();
-        int clipH = g.getClipHeight();
-
-        drawCharInternal( g, character, x, y, anchor );
-        
-        g.setClip( clipX, clipY, clipW, clipH );
+        single[0] = character;
+        drawChars( g, single, 0, 1, x, y, anchor );
     }
     
     /**
-    * Paints the characters as specified.
+    * Paints the characters as specified. Glyphs in the strip are
+    * copied from their source rects in one pass, without touching
+    * the clip. Characters not in the strip are drawn whole with
+    * the system font.
     */
     public void drawChars( 
         Graphics g, char[] data, 
@@ -245,68 +335,81 @@ public class CustomFont
             y -= height/2;
         }
         
-        int clipX = g.getClipX();
-        int clipY = g.getClipY();
-        int clipW = g.getClipWidth();
-        int clipH = g.getClipHeight();
-
+        Font callerFont = null;
         char c;
+        int advance;
         for ( int i = 0; i < length; i++ )
         {  
             c = data[offset+i];
-            drawCharInternal( g, c, x, y, g.TOP|g.LEFT );
-            x += width;
+            advance = charWidth( c );
+            if ( c < glyphs )
+            {
+                drawGlyph( g, c, x, y );
+            }
+            else
+            {
+                if ( callerFont == null )
+                {
+                    callerFont = g.getFont();
+                    g.setFont( system );
+                }
+                g.drawChar( c, x, y, g.TOP|g.LEFT );
+            }
+            
+            if ( ( style & Font.STYLE_UNDERLINED ) != 0 )
+            {
+                g.drawLine( 
+                    x, y + baseline + 2, x + advance, y + baseline + 2 );
+            }
+            x += advance;
         }
         
-        g.setClip( clipX, clipY, clipW, clipH );
+        if ( callerFont != null )
+        {
+            g.setFont( callerFont );
+        }
     }
     
     /**
-    * Draws the actual characters without worrying about
-    * saving and restoring the existing clip region.
+    * Copies a glyph's cell out of the strip. drawRegion only
+    * reads the source rect, so there is no clip to set and
+    * restore, and the caller's clip still applies.
     */
-    private void drawCharInternal( 
-        Graphics g, char character, int x, int y, int anchor )
+    private void drawGlyph( 
+        Graphics g, char character, int x, int y )
     {
+        int sx = glyphX[ character ];
+        
         if ( ( style & Font.STYLE_ITALIC ) != 0 )
         {
-            // draw italicized: top half is shifted right
-            g.setClip( x + 1, y, width, height/2 );
-            g.drawImage( 
-                image, x - width*character + 1, y, anchor );
-            g.setClip( x, y+height/2, width, height/2 );
-            g.drawImage( 
-                image, x - width*character, y, anchor );
+            // draw italicized: top half is shifted right, the shifted
+            // passes leave out the columns that would fall past the cell
+            int top = height/2;
+            g.drawRegion( 
+                image, sx, 0, width - 1, top, 0, x + 1, y, g.TOP|g.LEFT );
+            g.drawRegion( 
+                image, sx, top, width, height - top, 0, x, y + top, g.TOP|g.LEFT );
             
             if ( ( style & Font.STYLE_BOLD ) != 0 )
             {
-            g.setClip( x, y, width, height/2 );
-            g.drawImage( 
-                image, x - width*character + 2, y, anchor );
-            g.setClip( x, y+height/2, width, height/2 );
-            g.drawImage( 
-                image, x - width*character + 1, y, anchor );
+                g.drawRegion( 
+                    image, sx, 0, width - 2, top, 0, x + 2, y, g.TOP|g.LEFT );
+                g.drawRegion( 
+                    image, sx, top, width - 1, height - top, 0, x + 1, y + top, g.TOP|g.LEFT );
             }
         }
         else 
         {
-            // draw normally
-            g.setClip( x, y, width, height );
-            g.drawImage( 
-                image, x - width*character, y, anchor );
+            // draw normally, bold again one pixel right within the cell
+            g.drawRegion( 
+                image, sx, 0, width, height, 0, x, y, g.TOP|g.LEFT );
             
             if ( ( style & Font.STYLE_BOLD ) != 0 )
             {
-                g.drawImage( 
-                    image, x - width*character + 1, y, anchor );
+                g.drawRegion( 
+                    image, sx, 0, width - 1, height, 0, x + 1, y, g.TOP|g.LEFT );
             }
         }
-            
-        if ( ( style & Font.STYLE_UNDERLINED ) != 0 )
-        {
-            g.drawLine( 
-                x, y + baseline + 2, x + width, y + baseline + 2 );
-        }
     }
     
     /**
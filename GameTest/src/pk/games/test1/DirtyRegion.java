@@ -0,0 +1,73 @@
+package pk.games.test1;
+
+// Screen areas changed since the last repaint, kept as a few rectangles so only those
+// need to be redrawn and flushed. When the rectangles run out the last one grows to
+// cover the new area too.
+public class DirtyRegion {
+	private static final int MAX_RECTS = 8;	// Rectangles kept before merging
+
+	private int[] xs = new int[MAX_RECTS];	// Left edge of each rectangle
+	private int[] ys = new int[MAX_RECTS];	// Top edge
+	private int[] ws = new int[MAX_RECTS];	// Width
+	private int[] hs = new int[MAX_RECTS];	// Height
+	private int count;						// Rectangles in use
+
+	// Add an area, ignored if already covered
+	public void add(int x, int y, int w, int h) {
+		if (w <= 0 || h <= 0)
+			return;
+		for (int i = 0; i < count; i++)
+			if (x >= xs[i] && y >= ys[i] && x+w <= xs[i]+ws[i] && y+h <= ys[i]+hs[i])
+				return;
+		if (count == MAX_RECTS) {
+			int last = count-1;
+			int x2 = Math.max(x+w, xs[last]+ws[last]);
+			int y2 = Math.max(y+h, ys[last]+hs[last]);
+			xs[last] = Math.min(x, xs[last]);
+			ys[last] = Math.min(y, ys[last]);
+			ws[last] = x2-xs[last];
+			hs[last] = y2-ys[last];
+			return;
+		}
+		xs[count] = x;
+		ys[count] = y;
+		ws[count] = w;
+		hs[count] = h;
+		count++;
+	}
+
+	// True if rectangle i overlaps the area
+	public boolean intersects(int i, int x, int y, int w, int h) {
+		return x < xs[i]+ws[i] && xs[i] < x+w && y < ys[i]+hs[i] && ys[i] < y+h;
+	}
+
+	public boolean isEmpty() {
+		return count == 0;
+	}
+
+	// Number of rectangles
+	public int size() {
+		return count;
+	}
+
+	public int getX(int i) {
+		return xs[i];
+	}
+
+	public int getY(int i) {
+		return ys[i];
+	}
+
+	public int getWidth(int i) {
+		return ws[i];
+	}
+
+	public int getHeight(int i) {
+		return hs[i];
+	}
+
+	// Forget all areas, after they have been repainted
+	public void clear() {
+		count = 0;
+	}
+}
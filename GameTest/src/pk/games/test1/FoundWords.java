@@ -1,26 +1,72 @@
 package pk.games.test1;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
 import javax.microedition.lcdui.Graphics;
 
+import pk.games.solver.BoardSolver;
+import pk.games.solver.Scoring;
+
 public class FoundWords {
-	private String[] list;	// List of submitted words
+	private static final char[] DOTS = {'.','.','.'};	// Drawn after words too long for the box
+
+	private char[] chars;	// All submitted words back to back, grows when full
+	private int[] offsets;	// Start of word i in chars, offsets[count] is the end of the last word
 	private int count;		// Number of words in the list
+	private int[] table;	// Hash table of word index + 1 per slot, 0 for empty, linear probing
+	private Scoring scoring;	// Points for each word
+	private int score;		// Points of all words in the list
 	private int boxWidth;	// Width of the list
 	private int boxHeight;	// Height of the list
+	private int shownCount;	// Word count when the list was last reported dirty
 	
-	public FoundWords() { 
-		//TODO: Bttre lista
-		list = new String[100];
+	public FoundWords(Scoring scoring) { 
+		this.scoring = scoring;
+		chars = new char[128];
+		offsets = new int[17];
+		table = new int[32];
 		boxWidth = 52;
 		boxHeight = 148;
 	}
 	
-	// Submit a word to the found words list
-	public void submitWord(char[] data, int length) {
-		StringBuffer buf = new StringBuffer();
-		for(int i = 0; i < length; i++) 
-			buf.append(data[i]);
-		list[count++]=buf.toString();;		
+	// Submit a word to the found words list, returns false if it has already been found
+	public boolean submitWord(char[] data, int length) {
+		if (!insert(data, length))
+			return false;
+		score += scoring.score(data, 0, length);
+		return true;
+	}
+	
+	// Add a word to the arena and the table without scoring it, returns false if it
+	// is already in the list
+	private boolean insert(char[] data, int length) {
+		int slot = find(data, 0, length);
+		if (table[slot] != 0)
+			return false;
+		int end = offsets[count];
+		if (end+length > chars.length) {
+			char[] grown = new char[Math.max(chars.length*2, end+length)];
+			System.arraycopy(chars, 0, grown, 0, end);
+			chars = grown;
+		}
+		if (count+1 == offsets.length) {
+			int[] grown = new int[offsets.length*2];
+			System.arraycopy(offsets, 0, grown, 0, count+1);
+			offsets = grown;
+		}
+		System.arraycopy(data, 0, chars, end, length);
+		offsets[++count] = end+length;
+		table[slot] = count;
+		if (count*2 > table.length)
+			rehash(table.length*2);
+		return true;
+	}
+	
+	// True if the word has already been found
+	public boolean contains(char[] data, int length) {
+		return table[find(data, 0, length)] != 0;
 	}
 	
 	// Word count getter
@@ -28,6 +74,109 @@ public class FoundWords {
 		return count;
 	}
 	
+	// Points of all words found so far
+	public int getScore() {
+		return score;
+	}
+	
+	// All words as Strings in alphabetical order, for the final scores
+	public String[] getSortedWords() {
+		String[] words = new String[count];
+		for (int i = 0; i < count; i++)
+			words[i] = getWord(i);
+		BoardSolver.sort(words, count);
+		return words;
+	}
+	
+	// The arena all words are stored in, word i starts at getOffset(i)
+	public char[] getChars() {
+		return chars;
+	}
+	
+	public int getOffset(int i) {
+		return offsets[i];
+	}
+	
+	public int getLength(int i) {
+		return offsets[i+1]-offsets[i];
+	}
+	
+	// Word i as a String, allocates so keep it out of the game loop
+	public String getWord(int i) {
+		return new String(chars, offsets[i], offsets[i+1]-offsets[i]);
+	}
+	
+	// Write the list as a word count followed by each word's length and chars
+	public void write(DataOutputStream out) throws IOException {
+		out.writeShort(count);
+		for (int i = 0; i < count; i++) {
+			out.writeByte(offsets[i+1]-offsets[i]);
+			for (int c = offsets[i]; c < offsets[i+1]; c++)
+				out.writeChar(chars[c]);
+		}
+	}
+	
+	// Add the words written by write, e.g. the other player's list, returns the number
+	// of words that were new. The words do not count towards this list's score.
+	public int read(DataInputStream in) throws IOException {
+		int added = 0;
+		char[] word = new char[255];
+		for (int n = in.readUnsignedShort(); n > 0; n--) {
+			int length = in.readUnsignedByte();
+			for (int c = 0; c < length; c++)
+				word[c] = in.readChar();
+			if (insert(word, length))
+				added++;
+		}
+		return added;
+	}
+	
+	// Slot holding the word, or the empty slot where it belongs
+	private int find(char[] data, int offset, int length) {
+		int hash = 0;
+		for (int i = offset; i < offset+length; i++)
+			hash = 31*hash + data[i];
+		int mask = table.length - 1;
+		int slot = (hash ^ (hash >>> 16)) & mask;
+		while (table[slot] != 0 && !sameWord(table[slot]-1, data, offset, length))
+			slot = (slot + 1) & mask;
+		return slot;
+	}
+	
+	private boolean sameWord(int word, char[] data, int offset, int length) {
+		int start = offsets[word];
+		if (offsets[word+1]-start != length)
+			return false;
+		for (int i = 0; i < length; i++)
+			if (chars[start+i] != data[offset+i])
+				return false;
+		return true;
+	}
+	
+	// Rebuild the hash table with the given number of slots, a power of two
+	private void rehash(int slots) {
+		table = new int[slots];
+		for (int i = 0; i < count; i++)
+			table[find(chars, offsets[i], offsets[i+1]-offsets[i])] = i+1;
+	}
+	
+	// Width of the list box drawn by renderFoundWords
+	public int getWidth() {
+		return boxWidth;
+	}
+	
+	public int getHeight() {
+		return boxHeight;
+	}
+	
+	// Add the list box, drawn at x,y, to the dirty region if words were added since the last call
+	public void addDirty(DirtyRegion dirty, int x, int y) {
+		if (count != shownCount) {
+			shownCount = count;
+			dirty.add(x,y,boxWidth+1,boxHeight+1);
+		}
+	}
+	
 	// Draw a box with the list of found words, adds to bottom of the list and scrolls
 	// if too many words.
 	public void renderFoundWords(Graphics g, CustomFont f, int x, int y) {
@@ -38,19 +187,26 @@ public class FoundWords {
 		g.setColor(0x000000);
 		g.drawRect(x,y,boxWidth,boxHeight);
 
-		//draw the list
-		int charWidth = f.charWidth('a');
+		//draw the list, words too wide for the box are cut and end in dots
 		int charHeight = f.getHeight();
 		int rows = (boxHeight-2)/(charHeight+2);
-		int cols = (boxWidth -4)/(charWidth);
+		int textWidth = boxWidth-6;
+		int dots = f.charsWidth(DOTS, 0, DOTS.length);
 		int offset = Math.max(0, count-rows);
 		for(int i=offset;i<count;i++){
-			if(list[i].length() > cols) {
-				f.drawSubstring(g, list[i], 0, cols-4, x+4, 2+y+(i-offset)*charHeight,0);
-				f.drawString(g, "...", x+4+(cols-4)*charWidth, 2+y+((i-offset)*charHeight), 0);
+			int start = offsets[i];
+			int length = offsets[i+1]-start;
+			int rowY = 2+y+(i-offset)*charHeight;
+			if(f.charsWidth(chars, start, length) > textWidth) {
+				int fit = 0;
+				int width = dots;
+				while (width + f.charWidth(chars[start+fit]) <= textWidth)
+					width += f.charWidth(chars[start+fit++]);
+				f.drawChars(g, chars, start, fit, x+4, rowY, 0);
+				f.drawChars(g, DOTS, 0, DOTS.length, x+4+width-dots, rowY, 0);
 			}
 			else
-				f.drawString(g, list[i], x+4, 2+y+((i-offset)*charHeight), 0);
+				f.drawChars(g, chars, start, length, x+4, rowY, 0);
 		}
 	}
 }
@@ -0,0 +1,155 @@
+package pk.games.test1;
+
+import javax.microedition.lcdui.Graphics;
+
+import pk.games.solver.BoardSolver;
+import pk.games.solver.Scoring;
+
+// Post-game list of the words the player missed, grouped by length with their points,
+// and the share of the possible score the player got. The board is solved and the
+// words grouped on a low priority thread while the round is played, so when the
+// clock runs out only the found words have to be taken out of the list.
+public class GameAnalysis implements Runnable {
+	private static final int COLOR_BOX = 0x333388;		// List background
+	private static final int COLOR_HEADER = 0x338833;	// Length group headers
+	private static final int COLOR_EDGE = 0x000000;		// Borders
+
+	private GameBoard board;	// Board to analyse
+	private Scoring scoring;	// Points for each word
+	private Thread worker;		// Null once the groups are ready
+	private String[] words;		// All words on the board, longest first, then alphabetically
+	private int[] points;		// Points of each word
+	private int maxScore;		// Points of all words together
+
+	private String[] rows;		// Lines of the list, headers and missed words
+	private boolean[] header;	// True for the length group headers
+	private int rowCount;		// Lines in use
+	private int scroll;			// First line shown
+	private int percent;		// Player's share of maxScore
+
+	public GameAnalysis(GameBoard board, Scoring scoring) {
+		this.board = board;
+		this.scoring = scoring;
+	}
+
+	// Start solving and grouping in the background
+	public synchronized void start() {
+		if (words == null && worker == null) {
+			worker = new Thread(this);
+			worker.setPriority(Thread.MIN_PRIORITY);
+			worker.start();
+		}
+	}
+
+	public void run() {
+		String[] solution = board.getSolution();
+		if (solution == null) {
+			BoardSolver solver = new BoardSolver(board.getDictionary());
+			solver.setTopology(board.getTopology());
+			solver.solve(board.getBoard(), board.getAlphabet());
+			solution = solver.getWords();
+		}
+
+		// Stable sort on length, longest first, keeps the words alphabetical in each group
+		String[] sorted = new String[solution.length];
+		int longest = 0;
+		for (int i = 0; i < solution.length; i++)
+			longest = Math.max(longest, solution[i].length());
+		int n = 0;
+		for (int length = longest; length >= BoardSolver.MIN_LENGTH; length--)
+			for (int i = 0; i < solution.length; i++)
+				if (solution[i].length() == length)
+					sorted[n++] = solution[i];
+
+		int[] p = new int[n];
+		int total = 0;
+		for (int i = 0; i < n; i++) {
+			p[i] = scoring.score(sorted[i]);
+			total += p[i];
+		}
+		synchronized (this) {
+			words = sorted;
+			points = p;
+			maxScore = total;
+			worker = null;
+			notifyAll();
+		}
+	}
+
+	// Build the list of missed words, waiting for the background work if it is not done
+	public synchronized void finish(FoundWords found) {
+		start();
+		while (words == null) {
+			try {
+				wait();
+			} catch (InterruptedException e) { }
+		}
+
+		rows = new String[words.length * 2];
+		header = new boolean[rows.length];
+		rowCount = 0;
+		int groupLength = 0;
+		for (int i = 0; i < words.length; i++) {
+			String w = words[i];
+			if (found.contains(w.toCharArray(), w.length()))
+				continue;
+			if (w.length() != groupLength) {
+				groupLength = w.length();
+				header[rowCount] = true;
+				rows[rowCount++] = groupLength + " letters";
+			}
+			rows[rowCount++] = w + " " + points[i];
+		}
+		percent = maxScore == 0 ? 100 : found.getScore() * 100 / maxScore;
+		scroll = 0;
+	}
+
+	public int getMaxScore() {
+		return maxScore;
+	}
+
+	// Player's score as a percentage of the maximum
+	public int getPercent() {
+		return percent;
+	}
+
+	// Lines in the list of missed words, headers included
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	// Move the list by delta lines, returns false if it did not move
+	public boolean scroll(int delta, int visibleRows) {
+		int to = Math.max(0, Math.min(scroll + delta, rowCount - visibleRows));
+		if (to == scroll)
+			return false;
+		scroll = to;
+		return true;
+	}
+
+	// Lines that fit in a list box of the given height
+	public int visibleRows(CustomFont f, int height) {
+		return Math.max(1, (height-4)/(f.getHeight()+2));
+	}
+
+	// Draw the list box, only the lines that fit are drawn
+	public void renderMissedWords(Graphics g, CustomFont f, int x, int y, int width, int height) {
+		g.setColor(COLOR_BOX);
+		g.fillRect(x, y, width, height);
+		g.setColor(COLOR_EDGE);
+		g.drawRect(x, y, width, height);
+
+		int rowHeight = f.getHeight()+2;
+		int last = Math.min(rowCount, scroll + visibleRows(f, height));
+		for (int i = scroll; i < last; i++) {
+			int rowY = y + 3 + (i-scroll)*rowHeight;
+			if (header[i]) {
+				g.setColor(COLOR_HEADER);
+				g.fillRect(x+1, rowY-1, width-1, rowHeight);
+				f.drawString(g, rows[i], x+4, rowY, 0);
+			}
+			else
+				f.drawString(g, rows[i], x+8, rowY, 0);
+		}
+	}
+}
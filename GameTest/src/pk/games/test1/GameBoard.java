@@ -1,91 +1,165 @@
 package pk.games.test1;
 
-import java.util.Random;
-
 import javax.microedition.lcdui.Graphics;
 import javax.microedition.lcdui.Image;
 
+import pk.games.board.Alphabet;
+import pk.games.dict.IDictionary;
+import pk.games.solver.Adjacency;
+import pk.games.solver.TilePath;
+
 public class GameBoard {	
 	private static final int TILE_WIDTH = 20;	// Width of the tiles on the board
 	private static final int TILE_HEIGHT = 20;	// Height of the tiles on the board
-	private static final char[] LETTERS = {'A','B','C','D','E','F','G','H','I','J'};	// Static alphabeth
+	private static final int COLOR_PREFIX = 0x333388;	// Current word box, a word may still be formed
+	private static final int COLOR_WORD = 0x338833;		// Current word box, marked tiles form a word
+	private static final int COLOR_DEAD = 0x883333;		// Current word box, no word starts this way
+	private static final char[] DOTS = {'.','.','.'};	// Drawn before current words too long for the box
+
+	public static final int SUBMIT_OK = 0;			// Word added to the found words
+	public static final int SUBMIT_TOO_SHORT = 1;	// Fewer than three letters
+	public static final int SUBMIT_NOT_A_WORD = 2;	// Not in the dictionary
+	public static final int SUBMIT_DUPLICATE = 3;	// Already found
+
+	private static Image tileImages;	// Tile strip, shared by all boards using the same alphabet
+	private static Alphabet tileAlphabet;	// Alphabet tileImages was drawn for
+	private static Image cursor;		// Image of the cursor
+	private static Image cursorMarked;	// Image of tiles marked by cursor
 
 	private int[][] board;		// Number matrix repsresenting the board
+	private Alphabet alphabet;	// Tiles the numbers in the board refer to
 	private int boardSize;		// How many tiles on each row and column
+	private Adjacency adjacency;	// Which tiles touch, depends on the board topology
+	private int rowShift;		// Pixels odd rows are shifted right, half a tile on hex boards
 	private Image boardImage;	// The whole board cnstructed from the letter images
+	private int imageWidth;		// Width of boardImage
 	private int cursorPosX;		// Current x-position of cursor
 	private int cursorPosY;		// Current y-position of cursor
-	private Image cursor;		// Image of the cursor
-	private Image cursorMarked;	// Image of tiles marked by cursor
-	private int[][] marked;		// Matrix to keep track in which order the tiles are marked
-	private int lastMarkedX;	// X-position of last marked tile
-	private int lastMarkedY;	// Y-position of last marked tile
+	private TilePath path;		// Marked tiles, in the order they were marked
 	private int wordLength;		// Length of all the current marked tiles
 	private char[] currentWord;	// Char array with the marked tiles
+	private int[] lengths;		// Word length after each marked tile, lengths[0] is 0
+	private IDictionary dictionary;	// Words accepted by submitWord
+	private int[] nodes;		// Dictionary node reached after each marked tile, nodes[0] is the root
+	private String[] solution;	// All words on the board, sorted, null if not solved
+	private boolean[] tileDirty;	// Tiles changed since the last addDirty, by tile index
+	private boolean wordDirty;	// Current word changed since the last addDirty
 	
-	// Constructor, creates a new matrix with numbers and corresponding board image
-	// Initializes the cursor.
-	public GameBoard(int boardSize) throws Exception {
-		this.boardSize = boardSize;
+	// Constructor, takes a generated matrix of tile ids and creates the
+	// corresponding board image. Initializes the cursor.
+	// Topology is one of the Adjacency constants.
+	public GameBoard(int[][] board, Alphabet alphabet, int topology, IDictionary dictionary) throws Exception {
+		this.board = board;
+		this.alphabet = alphabet;
+		boardSize = board.length;
+		this.dictionary = dictionary;
+		adjacency = Adjacency.get(boardSize, topology);
+		rowShift = (topology == Adjacency.HEX) ? TILE_WIDTH/2 : 0;
+		imageWidth = TILE_WIDTH*boardSize + rowShift;
 		wordLength = 0;
-		currentWord= new char[boardSize*boardSize];
+		currentWord= new char[boardSize*boardSize*alphabet.getMaxLength()];
 
 		// Create a new mutable boardImage
-		Image tileImages = Image.createImage("/transplett.png");
-		boardImage = Image.createImage(TILE_WIDTH*boardSize,TILE_HEIGHT*boardSize);
+		Image tileImages = loadImages(alphabet);
+		boardImage = Image.createImage(imageWidth,TILE_HEIGHT*boardSize);
 		Graphics bg = boardImage.getGraphics();
 		bg.setColor(0x333388);
-		bg.fillRect(0, 0, TILE_WIDTH*boardSize, TILE_HEIGHT*boardSize);
+		bg.fillRect(0, 0, imageWidth, TILE_HEIGHT*boardSize);
 		
-		// Random letters
+		// Generated letters
 		int chrNbr;
-		Random rnd = new Random();
-		board = new int[boardSize][boardSize];
-		marked = new int[boardSize][boardSize];
+		path = new TilePath(adjacency);
+		nodes = new int[boardSize*boardSize+1];
+		nodes[0] = dictionary.getRoot();
+		lengths = new int[boardSize*boardSize+1];
+		tileDirty = new boolean[boardSize*boardSize];
 		for (int row=0; row<boardSize; row++) {
 			for (int col=0; col<boardSize; col++) {
-				chrNbr = rnd.nextInt(10);
-				board[row][col] = chrNbr;
-				bg.drawRegion(tileImages, chrNbr*TILE_WIDTH, 0, TILE_WIDTH, TILE_HEIGHT, 0, col*TILE_HEIGHT, row*TILE_WIDTH, 0);
-				marked[row][col]=0;
+				chrNbr = board[row][col];
+				bg.drawRegion(tileImages, chrNbr*TILE_WIDTH, 0, TILE_WIDTH, TILE_HEIGHT, 0, tileX(col,row), row*TILE_HEIGHT, 0);
 			}
 		}		
 
 		// Setup cursor
-		Image cursors = Image.createImage("/cursor3.png");
-		cursor = Image.createImage(cursors,0,0,TILE_WIDTH,TILE_HEIGHT,0);
-		cursorMarked = Image.createImage(cursors,TILE_WIDTH,0,TILE_WIDTH,TILE_HEIGHT,0);
-		cursorPosX = cursorPosY = 2;
-		lastMarkedX = lastMarkedY = -1;
+		cursorPosX = cursorPosY = boardSize/2;
+	}
+
+	// Decode the cursor images and draw the tiles the first time they are needed,
+	// boards built later reuse them. Returns the tile strip for the alphabet.
+	private static synchronized Image loadImages(Alphabet alphabet) throws Exception {
+		if (cursor == null) {
+			Image cursors = Image.createImage("/cursor3.png");
+			cursor = Image.createImage(cursors,0,0,TILE_WIDTH,TILE_HEIGHT,0);
+			cursorMarked = Image.createImage(cursors,TILE_WIDTH,0,TILE_WIDTH,TILE_HEIGHT,0);
+		}
+		if (tileAlphabet != alphabet) {
+			tileImages = TileArt.createTiles(alphabet, TILE_WIDTH, TILE_HEIGHT);
+			tileAlphabet = alphabet;
+		}
+		return tileImages;
 	}
 			
+	// X-position of a tile within the board image
+	private int tileX(int col, int row) {
+		return col*TILE_WIDTH + (row & 1)*rowShift;
+	}
+
+	// Width of the board box drawn by renderBoard
+	public int getWidth() {
+		return 8+imageWidth;
+	}
+
+	// Height of the board and current word boxes drawn by renderBoard
+	public int getHeight() {
+		return 29+boardSize*TILE_HEIGHT;
+	}
+
+	// Add the tiles and the current word box that changed since the last call to the
+	// dirty region, for a board drawn at x,y
+	public void addDirty(DirtyRegion dirty, int x, int y) {
+		for (int tile = 0; tile < tileDirty.length; tile++) {
+			if (tileDirty[tile]) {
+				tileDirty[tile] = false;
+				dirty.add(x+4+tileX(tile%boardSize,tile/boardSize), y+4+(tile/boardSize)*TILE_HEIGHT, TILE_WIDTH, TILE_HEIGHT);
+			}
+		}
+		if (wordDirty) {
+			wordDirty = false;
+			dirty.add(x,y+13+boardSize*TILE_HEIGHT, 9+imageWidth, 16);
+		}
+	}
+
 	// Render board on canvas
 	public void renderBoard(Graphics g, CustomFont f,int x, int y) {
 		int boardPxl = boardSize*TILE_HEIGHT;
 		// draw boxes for board and current word
 		g.setColor(0x333388);
-		g.fillRect(x,y,(8+boardPxl),(8+boardPxl));
-		g.fillRect(x,y +13+boardPxl, (8+boardPxl), 15);
+		g.fillRect(x,y,(8+imageWidth),(8+boardPxl));
+		g.setColor(wordColor());
+		g.fillRect(x,y +13+boardPxl, (8+imageWidth), 15);
 		g.setColor(0x000000);
-		g.drawRect(x,y,(8+boardPxl),(8+boardPxl));
-		g.drawRect(x,y+13+boardPxl, (8+boardPxl), 15);
+		g.drawRect(x,y,(8+imageWidth),(8+boardPxl));
+		g.drawRect(x,y+13+boardPxl, (8+imageWidth), 15);
 		
 		// draw letters
 		g.drawImage(boardImage,x+4,y+4,0);
 		
 		// draw marked and cursor
-		for (int row=0; row<boardSize; row++) 
-			for (int col=0; col<boardSize; col++) 
-				if (marked[row][col] != 0)
-					g.drawImage(cursorMarked, x+4+col*TILE_WIDTH, y+4+row*TILE_HEIGHT, 0);
-		g.drawImage(cursor, x+4+cursorPosX*TILE_WIDTH, y+4+cursorPosY*TILE_HEIGHT, 0);
+		for (int i=0; i<path.length(); i++) {
+			int tile = path.get(i);
+			g.drawImage(cursorMarked, x+4+tileX(tile%boardSize,tile/boardSize), y+4+(tile/boardSize)*TILE_HEIGHT, 0);
+		}
+		g.drawImage(cursor, x+4+tileX(cursorPosX,cursorPosY), y+4+cursorPosY*TILE_HEIGHT, 0);
 		
-		// draw current word
-		int length = f.charsWidth(currentWord, 0, wordLength);
-		if (length > boardPxl) {
-			f.drawString(g, "...",x+4,y+17+boardPxl,0);
-			length=(length-boardPxl)/f.charWidth('a');
-			f.drawChars(g, currentWord, length+4, wordLength-(length+4), x+4+(3*f.charWidth('.')), y +17+boardPxl, 0);
+		// draw current word, if too long its end after dots
+		if (f.charsWidth(currentWord, 0, wordLength) > imageWidth) {
+			int dots = f.charsWidth(DOTS, 0, DOTS.length);
+			int width = dots;
+			int start = wordLength;
+			while (width + f.charWidth(currentWord[start-1]) <= imageWidth)
+				width += f.charWidth(currentWord[--start]);
+			f.drawChars(g, DOTS, 0, DOTS.length, x+4, y +17+boardPxl, 0);
+			f.drawChars(g, currentWord, start, wordLength-start, x+4+dots, y +17+boardPxl, 0);
 		}
 		else {
 			f.drawChars(g, currentWord, 0, wordLength, x+4, y +17+boardPxl, 0);
@@ -95,78 +169,143 @@ public class GameBoard {
 	public void moveCursor(int dir) {
 		switch (dir){
 		case 2: // 2 - Move up
-			if (cursorPosY>0 && isNeighbour(cursorPosX,cursorPosY-1) && isUnmarkedOrLast(cursorPosX,cursorPosY-1))
-				cursorPosY--;
+			moveTo(cursorPosX,cursorPosY-1);
 			break;
 		case 4: // 4 - Move Left
-			if (cursorPosX>0 && isNeighbour(cursorPosX-1,cursorPosY) && isUnmarkedOrLast(cursorPosX-1,cursorPosY))
-				cursorPosX--;
+			moveTo(cursorPosX-1,cursorPosY);
 			break;
 		case 5: // 5 - Mark/UnMark
-			if ((lastMarkedX == cursorPosX) &&(lastMarkedY == cursorPosY)) {	// Unmark tile
-				wordLength--;
-				
-				if (wordLength == 0){
-					lastMarkedX = -1;
-					lastMarkedY = -1;
-					marked[cursorPosY][cursorPosX] = 0;
-				}
-				else {
-					for (int row=0; row<boardSize; row++) {
-						for (int col=0; col<boardSize; col++) {
-							if (marked[row][col] >wordLength)
-								marked[cursorPosY][cursorPosX] = 0;
-							if (marked[row][col] == wordLength) {
-								lastMarkedX=col;
-								lastMarkedY=row;
-							}
-						}
-					}
-				}
+			int tile = cursorPosY*boardSize + cursorPosX;
+			tileDirty[tile] = true;
+			wordDirty = true;
+			if (tile == path.last()) {											// Unmark tile
+				path.pop();
+				wordLength = lengths[path.length()];
 			}
-			else {																// Mark tile
-				currentWord[wordLength] = LETTERS[board[cursorPosY][cursorPosX]];
-				wordLength++;
-				marked[cursorPosY][cursorPosX] = wordLength;
-				lastMarkedX = cursorPosX;
-				lastMarkedY = cursorPosY;
+			else if (!path.contains(tile)) {									// Mark tile, all its letters
+				int id = board[cursorPosY][cursorPosX];
+				char[] chars = alphabet.getChars();
+				int node = nodes[path.length()];
+				for (int i = alphabet.getOffsets()[id]; i < alphabet.getOffsets()[id+1]; i++) {
+					currentWord[wordLength++] = chars[i];
+					if (node != IDictionary.NONE)
+						node = dictionary.getChild(node, chars[i]);
+				}
+				path.push(tile);
+				nodes[path.length()] = node;
+				lengths[path.length()] = wordLength;
 			}
 			break;
 		case 6: // 6 - Move Right
-			if (cursorPosX<boardSize-1 && isNeighbour(cursorPosX+1,cursorPosY) && isUnmarkedOrLast(cursorPosX+1,cursorPosY)) 
-				cursorPosX++;
+			moveTo(cursorPosX+1,cursorPosY);
 			break;
 		case 8: // 8 - Move Down
-			if (cursorPosY<boardSize-1 && isNeighbour(cursorPosX,cursorPosY+1) && isUnmarkedOrLast(cursorPosX,cursorPosY+1))
-				cursorPosY++;
+			moveTo(cursorPosX,cursorPosY+1);
 			break;
 		}
 	}
+
+	// Move the cursor to tile(x,y) if allowed, wrapping around the edges on a torus
+	private void moveTo(int x, int y) {
+		if (adjacency.getTopology() == Adjacency.TORUS) {
+			x = (x+boardSize) % boardSize;
+			y = (y+boardSize) % boardSize;
+		}
+		if (x>=0 && x<boardSize && y>=0 && y<boardSize && isNeighbour(x,y) && isUnmarkedOrLast(x,y)) {
+			tileDirty[cursorPosY*boardSize + cursorPosX] = true;
+			tileDirty[y*boardSize + x] = true;
+			cursorPosX = x;
+			cursorPosY = y;
+		}
+	}
 	
-	// Submit current word to found word list and clear board
-	public void submitWord(FoundWords fw) {
-		if (wordLength > 2)
-			fw.submitWord(currentWord, wordLength);
+	// Submit current word to found word list if it is in the dictionary, and clear board.
+	// Returns one of the SUBMIT constants.
+	public int submitWord(FoundWords fw) {
+		int result;
+		if (wordLength <= 2)
+			result = SUBMIT_TOO_SHORT;
+		else if (!isWord())
+			result = SUBMIT_NOT_A_WORD;
+		else if (!fw.submitWord(currentWord, wordLength))
+			result = SUBMIT_DUPLICATE;
+		else
+			result = SUBMIT_OK;
 		clear();
+		return result;
 	}
 	
 	// Clear all marked tiles
 	public void clear() {
+		for (int i=0; i<path.length(); i++)
+			tileDirty[path.get(i)] = true;
+		wordDirty = true;
 		wordLength=0;
-		lastMarkedX = -1;
-		lastMarkedY = -1;
-		for (int row=0; row<boardSize; row++) 
-			for (int col=0; col<boardSize; col++) 
-				marked[row][col] =0;
+		path.clear();
+	}
+	
+	// True if the marked tiles spell a dictionary word
+	private boolean isWord() {
+		int node = nodes[path.length()];
+		return node != IDictionary.NONE && dictionary.isWord(node);
+	}
+
+	// Color of the current word box: a word, the start of a word or a dead end
+	private int wordColor() {
+		if (nodes[path.length()] == IDictionary.NONE)
+			return COLOR_DEAD;
+		if (wordLength > 2 && isWord())
+			return COLOR_WORD;
+		return COLOR_PREFIX;
 	}
 	
 	// Check if tile is neighbour to tile(x,y)
 	private boolean isNeighbour(int x,int y){
-		return lastMarkedX == -1 || (Math.abs(x-lastMarkedX)<2) && (Math.abs(y-lastMarkedY)<2);
+		return path.isNeighbour(y*boardSize + x);
 	}
 	
 	// Only allowed to move onto unmarked tiles, unless it's the last one marked.
 	private boolean isUnmarkedOrLast(int x,int y){
-		return marked[y][x] == 0 || marked[y][x] == wordLength; 
+		int tile = y*boardSize + x;
+		return !path.contains(tile) || tile == path.last();
+	}
+
+	// How many tiles on each row and column
+	public int getBoardSize() {
+		return boardSize;
+	}
+
+	// Board topology, one of the Adjacency constants
+	public int getTopology() {
+		return adjacency.getTopology();
+	}
+
+	// All words on the board, sorted, or null if the board has not been solved
+	public String[] getSolution() {
+		return solution;
+	}
+
+	public void setSolution(String[] solution) {
+		this.solution = solution;
+	}
+
+	// Letter index matrix, rows first
+	public int[][] getBoard() {
+		return board;
+	}
+
+	// Tiles the ids in the board matrix refer to
+	public Alphabet getAlphabet() {
+		return alphabet;
+	}
+
+	// Marked tiles, in the order they were marked. Not to be changed by the caller.
+	public TilePath getPath() {
+		return path;
+	}
+
+	// Dictionary the board checks words against
+	public IDictionary getDictionary() {
+		return dictionary;
 	}
 }
\ No newline at end of file
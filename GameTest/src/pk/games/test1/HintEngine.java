@@ -0,0 +1,193 @@
+package pk.games.test1;
+
+import pk.games.board.Alphabet;
+import pk.games.dict.IDictionary;
+import pk.games.solver.Adjacency;
+import pk.games.solver.BoardSolver;
+import pk.games.solver.Scoring;
+import pk.games.solver.TilePath;
+
+// Finds the highest scoring word on the board that has not been found yet, preferring
+// words that extend the marked tiles. The search is a depth first walk kept on an
+// explicit stack, so it can run in short slices from the game loop: step() works until
+// its time budget is used up and the next call carries on where it stopped, with the
+// best word so far always available.
+public class HintEngine {
+	private static final int CHECK_EVERY = 32;	// Search steps between reads of the clock
+
+	private static final int EXTEND = 0;	// Searching paths that start with the marked tiles
+	private static final int ANYWHERE = 1;	// Searching paths from every tile
+	private static final int DONE = 2;
+
+	private GameBoard board;		// Board to search
+	private FoundWords found;		// Words that are not hints any more
+	private Scoring scoring;		// Ranks the words
+	private IDictionary dictionary;	// The board's dictionary
+	private int[] tileIds;			// Tile id on each tile, row by row
+	private char[] chars;			// Chars of every tile id, see Alphabet
+	private int[] charOffsets;		// Start of each tile id's chars
+	private int[] offsets;			// Start of each tile's neighbours, see Adjacency
+	private int[] neighbours;		// Neighbour lists
+
+	private int phase;				// EXTEND, ANYWHERE or DONE
+	private TilePath used;			// Tiles on the current path
+	private int base;				// Path length the current phase started from
+	private int depth;				// Tiles on the current path
+	private int[] nodes;			// Dictionary node after each path length
+	private int[] lengths;			// Word length after each path length
+	private int[] next;				// Next neighbour to try from the last tile, per path length
+	private int nextStart;			// Next start tile in the ANYWHERE phase
+	private char[] word;			// Chars of the current path
+
+	private char[] best;			// Best word so far
+	private int bestLength;			// Its length, 0 if none
+	private int bestScore;			// Its score
+	private boolean bestExtends;	// True if it extends the marked tiles
+
+	public HintEngine(GameBoard board, FoundWords found, Scoring scoring) {
+		this.board = board;
+		this.found = found;
+		this.scoring = scoring;
+		dictionary = board.getDictionary();
+		int n = board.getBoardSize();
+		int[][] matrix = board.getBoard();
+		tileIds = new int[n*n];
+		for (int row = 0; row < n; row++)
+			for (int col = 0; col < n; col++)
+				tileIds[row*n + col] = matrix[row][col];
+		Alphabet alphabet = board.getAlphabet();
+		chars = alphabet.getChars();
+		charOffsets = alphabet.getOffsets();
+		Adjacency adjacency = Adjacency.get(n, board.getTopology());
+		offsets = adjacency.getOffsets();
+		neighbours = adjacency.getNeighbours();
+
+		used = new TilePath(adjacency);
+		nodes = new int[n*n + 1];
+		lengths = new int[n*n + 1];
+		next = new int[n*n + 1];
+		word = new char[n*n * alphabet.getMaxLength()];
+		best = new char[word.length];
+		phase = DONE;
+	}
+
+	// Start a new search from the tiles marked on the board right now
+	public void start() {
+		bestLength = 0;
+		bestScore = 0;
+		bestExtends = false;
+		used.clear();
+		depth = 0;
+		nodes[0] = dictionary.getRoot();
+		lengths[0] = 0;
+
+		TilePath marked = board.getPath();
+		for (int i = 0; i < marked.length() && nodes[depth] != IDictionary.NONE; i++)
+			enter(marked.get(i));
+		if (depth > 0 && depth == marked.length() && nodes[depth] != IDictionary.NONE) {
+			phase = EXTEND;
+			base = depth;
+		}
+		else
+			startAnywhere();
+	}
+
+	// Search for at most millis ms. Returns true once the search is complete.
+	public boolean step(long millis) {
+		long deadline = System.currentTimeMillis() + millis;
+		int steps = 0;
+		while (phase != DONE) {
+			if (++steps == CHECK_EVERY) {
+				steps = 0;
+				if (System.currentTimeMillis() >= deadline)
+					return false;
+			}
+			int tile = nextTile();
+			if (tile < 0) {
+				// Every path through the last tile is done, back off
+				if (depth == base)
+					endPhase();
+				else {
+					used.pop();
+					depth--;
+				}
+			}
+			else if (!used.contains(tile) && enter(tile))
+				consider();
+		}
+		return true;
+	}
+
+	public boolean isDone() {
+		return phase == DONE;
+	}
+
+	// Best word so far, null if none has been found
+	public String getHint() {
+		return bestLength == 0 ? null : new String(best, 0, bestLength);
+	}
+
+	// True if the hint starts with the marked tiles
+	public boolean extendsPath() {
+		return bestExtends;
+	}
+
+	// Next tile to extend the path with, -1 when there are no more
+	private int nextTile() {
+		if (depth == 0)
+			return nextStart < tileIds.length ? nextStart++ : -1;
+		int last = used.last();
+		return next[depth] < offsets[last + 1] ? neighbours[next[depth]++] : -1;
+	}
+
+	// Add a tile to the path if the dictionary has words that way, returns false if not
+	private boolean enter(int tile) {
+		int node = nodes[depth];
+		int length = lengths[depth];
+		int id = tileIds[tile];
+		for (int i = charOffsets[id]; i < charOffsets[id + 1]; i++) {
+			node = dictionary.getChild(node, chars[i]);
+			if (node == IDictionary.NONE)
+				return false;
+			word[length++] = chars[i];
+		}
+		used.push(tile);
+		depth++;
+		nodes[depth] = node;
+		lengths[depth] = length;
+		next[depth] = offsets[tile];
+		return true;
+	}
+
+	// Keep the word on the path if it beats the best so far
+	private void consider() {
+		int length = lengths[depth];
+		if (length < BoardSolver.MIN_LENGTH || !dictionary.isWord(nodes[depth]))
+			return;
+		int score = scoring.score(word, 0, length);
+		if (score <= bestScore && (score < bestScore || length <= bestLength))
+			return;
+		if (found.contains(word, length))
+			return;
+		System.arraycopy(word, 0, best, 0, length);
+		bestLength = length;
+		bestScore = score;
+		bestExtends = phase == EXTEND;
+	}
+
+	// A word extending the marked tiles beats any other, otherwise look everywhere
+	private void endPhase() {
+		if (phase == EXTEND && bestLength == 0)
+			startAnywhere();
+		else
+			phase = DONE;
+	}
+
+	private void startAnywhere() {
+		used.clear();
+		depth = 0;
+		base = 0;
+		nextStart = 0;
+		phase = ANYWHERE;
+	}
+}
@@ -0,0 +1,39 @@
+package pk.games.test1;
+
+// Fixed size ring buffer of game actions, filled by the key event callbacks and emptied
+// by the game loop, so presses that start and end between two loops are not lost.
+// When the buffer is full new keys are dropped.
+public class KeyQueue {
+	public static final int EMPTY = 0;	// Returned by take when there are no keys, not a game action
+
+	private int[] ring;		// Queued game actions
+	private int head;		// Slot of the oldest action
+	private int count;		// Actions in the buffer
+
+	public KeyQueue(int capacity) {
+		ring = new int[capacity];
+	}
+
+	// Queue a game action, returns false if the buffer is full
+	public synchronized boolean put(int action) {
+		if (count == ring.length)
+			return false;
+		ring[(head + count) % ring.length] = action;
+		count++;
+		return true;
+	}
+
+	// Oldest queued game action, EMPTY if there is none
+	public synchronized int take() {
+		if (count == 0)
+			return EMPTY;
+		int action = ring[head];
+		head = (head + 1) % ring.length;
+		count--;
+		return action;
+	}
+
+	public synchronized void clear() {
+		head = count = 0;
+	}
+}
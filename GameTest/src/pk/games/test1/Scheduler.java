@@ -0,0 +1,39 @@
+package pk.games.test1;
+
+// Puts the game loop to sleep until there is something to do: an event such as a key
+// press or a clock tick wakes it at once, otherwise it sleeps until the earliest
+// deadline asked for, or until woken if there is none.
+public class Scheduler {
+	private boolean woken;						// An event came in since the last sleep
+	private long deadline = Long.MAX_VALUE;		// Earliest time asked for by wakeAt
+
+	// Wake the sleeping loop, may be called from any thread
+	public synchronized void wake() {
+		woken = true;
+		notify();
+	}
+
+	// Make the next sleep end no later than time, in System.currentTimeMillis() ms
+	public synchronized void wakeAt(long time) {
+		if (time < deadline)
+			deadline = time;
+	}
+
+	// Sleep until woken or the deadline passes, then forget both
+	public synchronized void sleep() {
+		try {
+			while (!woken) {
+				if (deadline == Long.MAX_VALUE)
+					wait();
+				else {
+					long left = deadline - System.currentTimeMillis();
+					if (left <= 0)
+						break;
+					wait(left);
+				}
+			}
+		} catch (InterruptedException e) { }
+		woken = false;
+		deadline = Long.MAX_VALUE;
+	}
+}
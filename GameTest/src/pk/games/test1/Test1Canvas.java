@@ -9,6 +9,7 @@ import java.util.Timer;
 import javax.microedition.lcdui.Font;
 
 import pk.games.menu.Test1GUI;
+import pk.games.solver.Scoring;
 
 public class Test1Canvas extends GameCanvas implements Runnable, CommandListener {
 	private Test1GUI midlet;			// Hold the Main Midlet
@@ -19,16 +20,36 @@ public class Test1Canvas extends GameCanvas implements Runnable, CommandListener
 	private int height;				// Screen height
 	
 	private boolean finished;		// Run game loop if not finished
-	private int sleepTime = 200;	// Sleep after each game loop (ms)
-	private int boardSize = 5;		// nxn board
 	private int gameTime = 20;		// For how long shall the game run (s)
+	private int messageTime = 1000;	// For how long a message is shown (ms)
+	private int hintBudget = 30;	// Time the hint search may take each game loop (ms)
 	private GameBoard gameBoard;	// All letter tiles
 	private CustomFont font;		// Bitmap font
 	private Clock clock;			// Count down clock
+	private Timer timer;			// Ticks the clock, cancelled when the game ends or is quit
+	private Scoring scoring;		// Points for the words
 	private FoundWords foundWords;	// List with submitted words
+	private HintEngine hints;		// Looks for a word to suggest
+	private GameAnalysis analysis;	// Missed words, worked out while the game runs
+	private boolean hinting;		// A hint has been asked for and is being searched
+	private String message;			// Why the last word was rejected, null if none
+	private long messageEnd;		// Time the message is taken down
+	private Scheduler scheduler = new Scheduler();	// Wakes the game loop on keys, ticks and deadlines
+	private KeyQueue keys = new KeyQueue(16);	// Game actions not handled yet
+	private int repeatDelay = 300;	// Time a direction is held before the cursor starts repeating (ms)
+	private int repeatStart = 150;	// Time between the first repeated cursor moves (ms)
+	private int repeatMin = 50;		// Shortest time between repeated cursor moves (ms)
+	private int repeatPercent = 75;	// Each time between repeats as percent of the one before
+	private int repeatAction;		// Direction being held, 0 if none
+	private int repeatInterval;		// Time to the next repeated move
+	private long nextRepeat;		// Earliest time of the next repeated move
+	private DirtyRegion dirty = new DirtyRegion();	// Screen areas to repaint
+	private boolean repaintAll = true;	// Whole screen needs repainting, e.g. when shown again
+	private String shownMessage;	// Message on screen
+	private int shownScore;			// Score on screen
 		
-	public Test1Canvas(Test1GUI midlet) {
-		super(true);  
+	public Test1Canvas(Test1GUI midlet, GameBoard gameBoard) {
+		super(false);	// Keys are read from the key events
 		this.midlet = midlet;
 		addCommand(backCommand);
 		setCommandListener(this);
@@ -42,50 +63,156 @@ public class Test1Canvas extends GameCanvas implements Runnable, CommandListener
             Font.SIZE_SMALL,    // ignored
             Font.STYLE_PLAIN ); // no styling	
         
-		// Setup board
-		try {
-			gameBoard = new GameBoard(boardSize);
-		} catch (Exception e) { }
+		// Setup board, built ahead of time by the board pool
+		this.gameBoard = gameBoard;
 		
-		// Setup found words
-		foundWords = new FoundWords();
+		// Setup found words and hints
+		scoring = Scoring.boggle();
+		foundWords = new FoundWords(scoring);
+		hints = new HintEngine(gameBoard, foundWords, scoring);
+		analysis = new GameAnalysis(gameBoard, scoring);
 		
 		// Init clock
-		clock = new Clock(gameTime);
-		new Timer().schedule(clock, 0, 1000);
+		clock = new Clock(gameTime, scheduler);
+		timer = new Timer();
+		timer.schedule(clock, 0, 1000);
 
 	}
 	
-	// Runs the game loop and if finished moves to game over screen
+	// Runs the game loop and if finished moves to game over screen. The loop sleeps
+	// until a key is pressed, the clock ticks or a message is due to be taken down,
+	// and runs back to back while a hint is being searched for.
 	public void run() {
 		Thread currentThread = Thread.currentThread();
 		
 		while(( (currentThread == gameThread) && !finished)) { 
 			try {
 				verifyGameState();				// Verify game state
-				moveCursor();					// User input
+				handleKeys();					// User input
+				handleKey(repeatedKey());		// Held direction
+				searchHint();					// Hint search, a slice per loop
 				updateScreen(getGraphics());	// Update screen
-				Thread.sleep(sleepTime);  
+				if (message != null)
+					scheduler.wakeAt(messageEnd);
+				if (hinting)
+					Thread.yield();
+				else
+					scheduler.sleep();
 			} catch (Exception e) { } 
 		}	
 		//midlet.mainMenuScreenShow(null);
+		if (currentThread != gameThread)
+			return;
+		analysis.finish(foundWords);
 		gameOver(getGraphics());
+
+		// Let the player scroll through the missed words until quitting
+		keys.clear();
+		while (currentThread == gameThread) {
+			int delta = 0;
+			for (int action = keys.take(); action != KeyQueue.EMPTY; action = keys.take())
+				delta += scrollDelta(action);
+			delta += scrollDelta(repeatedKey());
+			if (delta != 0 && analysis.scroll(delta, analysis.visibleRows(font, listHeight())))
+				gameOver(getGraphics());
+			scheduler.sleep();
+		}
 	} 
 	
-	// Start the game
+	// Start the game, and the analysis of the board in the background
 	public void start() {	
+		analysis.start();
 		gameThread = new Thread(this);
 		gameThread.start();
 	}
 	
 	// Stop the game
 	public void stop() {
+		timer.cancel();
 		gameThread = null;
+		scheduler.wake();
+	}
+	
+	// Set how a held direction key repeats, to replace the defaults above: the delay
+	// before the first repeat, the time between the first repeats, the shortest time
+	// between repeats and how much each time between repeats shrinks, as percent of
+	// the one before (ms)
+	public void setKeyRepeat(int delay, int start, int min, int percent) {
+		repeatDelay = delay;
+		repeatStart = start;
+		repeatMin = min;
+		repeatPercent = percent;
+	}
+	
+	// Queue the key for the game loop and wake it. A direction key is held until
+	// released and repeated by the game loop, so the platform's repeat events, which
+	// not every device sends, are not needed.
+	protected void keyPressed(int keyCode) {
+		int action = gameAction(keyCode);
+		holdKey(isDirection(action) ? action : 0);
+		queueKey(action);
+	}
+	
+	protected void keyReleased(int keyCode) {
+		if (gameAction(keyCode) == repeatAction)
+			holdKey(0);
+	}
+	
+	private synchronized void holdKey(int action) {
+		repeatAction = action;
+		repeatInterval = repeatStart;
+		nextRepeat = System.currentTimeMillis() + repeatDelay;
+	}
+	
+	// The held direction if it is due to repeat, 0 if not. Each repeat comes sooner
+	// than the one before, and the loop is woken for the next one.
+	private synchronized int repeatedKey() {
+		if (repeatAction == 0)
+			return 0;
+		long now = System.currentTimeMillis();
+		if (now < nextRepeat) {
+			scheduler.wakeAt(nextRepeat);
+			return 0;
+		}
+		nextRepeat = now + repeatInterval;
+		repeatInterval = Math.max(repeatMin, repeatInterval*repeatPercent/100);
+		scheduler.wakeAt(nextRepeat);
+		return repeatAction;
+	}
+	
+	private void queueKey(int action) {
+		if (action != 0 && keys.put(action))
+			scheduler.wake();
+	}
+	
+	// Game action of a key, 0 if it has none
+	private int gameAction(int keyCode) {
+		try {
+			return getGameAction(keyCode);
+		} catch (IllegalArgumentException e) {
+			return 0;
+		}
+	}
+	
+	private static boolean isDirection(int action) {
+		return action == UP || action == DOWN || action == LEFT || action == RIGHT;
+	}
+	
+	// Rows the missed words list scrolls for an action
+	private static int scrollDelta(int action) {
+		return action == UP ? -1 : action == DOWN ? 1 : 0;
+	}
+	
+	// The screen may have been drawn over while hidden
+	protected void showNotify() {
+		repaintAll = true;
 	}
 	
 	public void commandAction(Command c, Displayable d) {
-		if (c == backCommand)
+		if (c == backCommand) {
+			stop();
 			midlet.mainMenuScreenShow(null);
+		}
 	}
 	
 	// Draw a background
@@ -94,54 +221,154 @@ public class Test1Canvas extends GameCanvas implements Runnable, CommandListener
 		g.fillRect(0,0,width,height);
 	}
 	
-	// User input, move cursor or mark/unmark letters
-	private void moveCursor() {
-		int keyState = getKeyStates(); 
-		System.out.println(keyState);
-		if ((keyState & UP_PRESSED) != 0) { 
-			gameBoard.moveCursor(2); 
-		} else if ((keyState & RIGHT_PRESSED) != 0) { 
-			gameBoard.moveCursor(6); 
-		} else if ((keyState & DOWN_PRESSED) != 0) { 
-			gameBoard.moveCursor(8); 
-		} else if ((keyState & LEFT_PRESSED) != 0) { 
-			gameBoard.moveCursor(4); 
-		} else if ((keyState & FIRE_PRESSED) != 0) {
-			gameBoard.moveCursor(5);
-		} else if ((keyState & GAME_C_PRESSED) != 0) {
-			gameBoard.submitWord(foundWords);
-		} else if ((keyState & GAME_D_PRESSED) != 0) {
-			gameBoard.clear();
+	// User input, handle every key queued since the last game loop
+	private void handleKeys() {
+		for (int action = keys.take(); action != KeyQueue.EMPTY; action = keys.take())
+			handleKey(action);
+	}
+	
+	// Move cursor or mark/unmark letters
+	private void handleKey(int action) {
+		switch (action) {
+		case UP: gameBoard.moveCursor(2); break;
+		case RIGHT: gameBoard.moveCursor(6); break;
+		case DOWN: gameBoard.moveCursor(8); break;
+		case LEFT: gameBoard.moveCursor(4); break;
+		case FIRE: gameBoard.moveCursor(5); break;
+		case GAME_C: showResult(gameBoard.submitWord(foundWords)); break;
+		case GAME_D: gameBoard.clear(); break;
+		case GAME_A:
+			if (!hinting) {
+				hints.start();
+				hinting = true;
+			}
+			break;
 		}
 	}
 
+	// Let the hint search run for its time slice and show the hint once it is complete
+	private void searchHint() {
+		if (!hinting || !hints.step(hintBudget))
+			return;
+		hinting = false;
+		String hint = hints.getHint();
+		if (hint == null)
+			message = "No words left";
+		else if (hints.extendsPath())
+			message = "Go on: " + hint;
+		else
+			message = "Try: " + hint;
+		messageEnd = System.currentTimeMillis() + messageTime;
+	}
+
+	// Tell the player why a submitted word was not accepted
+	private void showResult(int result) {
+		switch (result) {
+		case GameBoard.SUBMIT_TOO_SHORT: message = "Too short"; break;
+		case GameBoard.SUBMIT_NOT_A_WORD: message = "Not a word"; break;
+		case GameBoard.SUBMIT_DUPLICATE: message = "Already found"; break;
+		default: message = null;
+		}
+		messageEnd = System.currentTimeMillis() + messageTime;
+	}
+
 	// End game if out of time
 	private void verifyGameState() {
-		if(clock.getTimeLeft() == 0) {
+		if(clock.getTimeLeft() <= 0) {
+			timer.cancel();
 			finished = true;
 			return;
 		}
 	}
 	
-	// Draw all objects to the screen
-	public void updateScreen(Graphics g) {				
-		createBackground(g);										// Draw background
-		clock.renderTime(g,font,5,5);								// Draw Timer
-		gameBoard.renderBoard(g,font, 5, 25);						// Draw board
-		foundWords.renderFoundWords(g, font, (18+boardSize*20), 5);	// Draw found words
-		flushGraphics();	
+	// Redraw and flush only the parts of the screen that changed since the last call. Each
+	// object reports what it changed, and each dirty rectangle is repainted with the clip
+	// set to it by the objects it overlaps.
+	public void updateScreen(Graphics g) {
+		if (message != null && System.currentTimeMillis() >= messageEnd)
+			message = null;
+		int listX = 10+gameBoard.getWidth();
+		int messageY = 30+gameBoard.getHeight();
+		int scoreY = 50+gameBoard.getHeight();
+		
+		// Collect the damage
+		if (repaintAll) {
+			repaintAll = false;
+			dirty.add(0,0,width,height);
+		}
+		clock.addDirty(dirty,5,5);
+		gameBoard.addDirty(dirty,5,25);
+		foundWords.addDirty(dirty,listX,5);
+		if (message != shownMessage) {
+			shownMessage = message;
+			dirty.add(5,messageY,gameBoard.getWidth()+1,16);
+		}
+		if (foundWords.getScore() != shownScore) {
+			shownScore = foundWords.getScore();
+			dirty.add(5,scoreY,gameBoard.getWidth()+1,16);
+		}
+		
+		// Repaint it
+		for (int i = 0; i < dirty.size(); i++) {
+			int x = dirty.getX(i);
+			int y = dirty.getY(i);
+			int w = dirty.getWidth(i);
+			int h = dirty.getHeight(i);
+			g.setClip(x,y,w,h);
+			createBackground(g);													// Draw background
+			if (dirty.intersects(i,5,5,Clock.WIDTH+1,Clock.HEIGHT+1))
+				clock.renderTime(g,font,5,5);										// Draw Timer
+			if (dirty.intersects(i,5,25,gameBoard.getWidth()+1,gameBoard.getHeight()))
+				gameBoard.renderBoard(g,font,5,25);									// Draw board
+			if (dirty.intersects(i,listX,5,foundWords.getWidth()+1,foundWords.getHeight()+1))
+				foundWords.renderFoundWords(g,font,listX,5);						// Draw found words
+			if (dirty.intersects(i,5,messageY,gameBoard.getWidth()+1,16))
+				renderMessage(g,5,messageY);										// Draw rejection message
+			if (dirty.intersects(i,5,scoreY,gameBoard.getWidth()+1,16))
+				renderScore(g,5,scoreY);											// Draw score
+			flushGraphics(x,y,w,h);
+		}
+		dirty.clear();
+		g.setClip(0,0,width,height);
+	}
+	
+	// Draw the message box while there is a message to show
+	private void renderMessage(Graphics g, int x, int y) {
+		if (message == null)
+			return;
+		g.setColor(0x883333);
+		g.fillRect(x,y,gameBoard.getWidth(),15);
+		g.setColor(0x000000);
+		g.drawRect(x,y,gameBoard.getWidth(),15);
+		font.drawString(g,message,x+4,y+4,0);
 	}
 	
-	// Very simple game over screen, anything more advanced should probably be in a separate class
+	// Draw the running score
+	private void renderScore(Graphics g, int x, int y) {
+		g.setColor(0x333388);
+		g.fillRect(x,y,gameBoard.getWidth(),15);
+		g.setColor(0x000000);
+		g.drawRect(x,y,gameBoard.getWidth(),15);
+		font.drawString(g,"Score: " + foundWords.getScore(),x+4,y+4,0);
+	}
+	
+	// Game over screen: the score, its share of the possible score and the missed words
 	private void gameOver(Graphics g){
 		createBackground(g);										// Draw background
 		g.setColor(0x333388);
-		g.fillRect(5,5,width-10,height-10);
+		g.fillRect(5,5,width-10,60);
 		g.setColor(0x000000);
-		g.drawRect(5,5,width-10,height-10);
-		font.drawString(g,"GAME OVER!" ,60,20,0);
+		g.drawRect(5,5,width-10,60);
+		font.drawString(g,"GAME OVER!" ,60,10,0);
 		int count = foundWords.getCount();
-		font.drawString(g,"In "+gameTime +" seconds you found " + count + " words" ,10,40,0);
+		font.drawString(g,"In "+gameTime +" seconds you found " + count + " words" ,10,28,0);
+		font.drawString(g,"Score: " + foundWords.getScore() + " of " + analysis.getMaxScore() + ", " + analysis.getPercent() + "%",10,43,0);
+		analysis.renderMissedWords(g, font, 5, 70, width-10, listHeight());	// Draw missed words
 		flushGraphics();
 	}
+
+	// Height of the missed words list on the game over screen
+	private int listHeight() {
+		return height-75;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+package pk.games.test1;
+
+import javax.microedition.lcdui.Font;
+import javax.microedition.lcdui.Graphics;
+import javax.microedition.lcdui.Image;
+
+import pk.games.board.Alphabet;
+
+// Draws the letter tiles, one tile per tile id side by side in a single image,
+// so any alphabet, digraph tiles like Qu included, can be shown without shipping
+// a picture of every tile.
+public class TileArt {
+	private static final int COLOR_BG = 0x333388;		// Board background, around the round tiles
+	private static final int COLOR_TILE = 0xffffff;		// Tile face
+	private static final int COLOR_EDGE = 0x000000;		// Tile border and letter
+
+	// Strip of tiles, tile i at x = i*width
+	public static Image createTiles(Alphabet alphabet, int width, int height) {
+		int count = alphabet.size();
+		Image strip = Image.createImage(width*count, height);
+		Graphics g = strip.getGraphics();
+		g.setColor(COLOR_BG);
+		g.fillRect(0, 0, width*count, height);
+
+		Font font = Font.getFont(Font.FACE_PROPORTIONAL, Font.STYLE_BOLD, Font.SIZE_SMALL);
+		g.setFont(font);
+		int textY = (height - font.getHeight())/2 + 1;
+		for (int i=0; i<count; i++) {
+			int x = i*width;
+			g.setColor(COLOR_TILE);
+			g.fillArc(x+1, 1, width-3, height-3, 0, 360);
+			g.setColor(COLOR_EDGE);
+			g.drawArc(x+1, 1, width-3, height-3, 0, 360);
+			g.drawString(alphabet.getLabel(i), x + width/2, textY, Graphics.TOP|Graphics.HCENTER);
+		}
+		return strip;
+	}
+}